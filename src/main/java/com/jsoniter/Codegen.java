@@ -9,13 +9,40 @@ import java.io.OutputStreamWriter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 class Codegen {
 
-    // only read/write when generating code with synchronized protection
-    private final static Set<String> generatedClassNames = new HashSet<String>();
+    // cache key to the class defined for it, generated code can call its decode_ directly
+    private final static Map<String, String> generatedClassNames = new ConcurrentHashMap<String, String>();
+    // class name to the times it was defined, a decoder dropped is generated again as another class
+    private final static Map<String, Integer> definedClassNames = new ConcurrentHashMap<String, Integer>();
     static StaticCodegenTarget isDoingStaticCodegen = null;
     static DecodingMode mode = DecodingMode.REFLECTION_MODE;
+    // static final fields of the class being generated by the thread, and the cache keys it depends on
+    private final static ThreadLocal<Linker> linker = new ThreadLocal<Linker>();
+    // cache key to the cache keys of the decoders depending on it, and the other way around,
+    // replacing a decoder drops the decoders that linked to it, so that they are created again
+    private final static ConcurrentHashMap<String, Set<String>> dependents = new ConcurrentHashMap<String, Set<String>>();
+    private final static ConcurrentHashMap<String, Set<String>> dependencies = new ConcurrentHashMap<String, Set<String>>();
+    // linked by classes initialized before the decoder of the cache key is registered
+    private final static ConcurrentHashMap<String, LinkedDecoder> cells = new ConcurrentHashMap<String, LinkedDecoder>();
+    // 0 means not profiling
+    static int profileWarmUp = 0;
+    static int tieredThreshold = 1000;
+    private final static Map<String, ProfiledDecoder> profiles = new ConcurrentHashMap<String, ProfiledDecoder>();
+    // threads are created lazily, daemon threads do not block exit
+    private final static ExecutorService backgroundCodegen = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "jsoniter-codegen");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
     static {
         String envMode = System.getenv("JSONITER_DECODING_MODE");
         if (envMode != null) {
@@ -35,7 +62,9 @@ class Codegen {
         return gen(cacheKey, type);
     }
 
-    private synchronized static Decoder gen(String cacheKey, Type type) {
+    // not synchronized as a whole, so that types are generated in parallel (for example by JsoniterSpi.warmUp),
+    // the lock only guards claiming the cache key with the placeholder
+    private static Decoder gen(String cacheKey, Type type) {
         Decoder decoder = JsoniterSpi.getDecoder(cacheKey);
         if (decoder != null) {
             return decoder;
@@ -65,7 +94,126 @@ class Codegen {
         if (decoder != null) {
             return decoder;
         }
-        addPlaceholderDecoderToSupportRecursiveStructure(cacheKey);
+        // supports recursive structure, and makes other threads wait for the decoder instead of generating it again
+        LinkedDecoder placeholder = new LinkedDecoder(cacheKey, type, Thread.currentThread());
+        synchronized (Codegen.class) {
+            decoder = JsoniterSpi.getDecoder(cacheKey);
+            if (decoder != null) {
+                return decoder;
+            }
+            JsoniterSpi.addNewDecoder(cacheKey, placeholder);
+        }
+        Linker outer = linker.get();
+        Linker current = new Linker(cacheKey, null, null);
+        linker.set(current);
+        try {
+            decoder = gen(cacheKey, type, clazz, typeArgs);
+            addDependencies(current);
+            return decoder;
+        } catch (RuntimeException e) {
+            if (JsoniterSpi.getDecoder(cacheKey) == placeholder) {
+                // the next use tries again
+                JsoniterSpi.addNewDecoder(cacheKey, null);
+            }
+            throw e;
+        } finally {
+            linker.set(outer);
+            placeholder.generated();
+        }
+    }
+
+    /**
+     * the decoder of the cache key, for the decoder being created by the thread,
+     * which is dropped when the decoder of the cache key is replaced
+     */
+    static Decoder getDependency(String cacheKey, Type type) {
+        dependOn(cacheKey);
+        return getDecoder(cacheKey, type);
+    }
+
+    private static void dependOn(String cacheKey) {
+        Linker current = linker.get();
+        if (current != null && !cacheKey.equals(current.cacheKey)) {
+            current.dependencies.add(cacheKey);
+        }
+    }
+
+    private static void addDependencies(Linker linker) {
+        for (String dependency : linker.dependencies) {
+            addTo(dependents, dependency, linker.cacheKey);
+            addTo(dependencies, linker.cacheKey, dependency);
+        }
+    }
+
+    private static void addTo(ConcurrentHashMap<String, Set<String>> map, String key, String value) {
+        Set<String> values = map.get(key);
+        if (values == null) {
+            values = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            Set<String> existing = map.putIfAbsent(key, values);
+            if (existing != null) {
+                values = existing;
+            }
+        }
+        values.add(value);
+    }
+
+    // the decoder of the cache key is replaced or removed
+    static void decoderReplaced(String cacheKey, Decoder old, Decoder decoder) {
+        LinkedDecoder cell = cells.get(cacheKey);
+        if (cell != null) {
+            cell.unresolve();
+        }
+        if (old instanceof LinkedDecoder) {
+            // the placeholder is replaced by the decoder generated, or removed as the generation failed
+            return;
+        }
+        if (old instanceof TieredDecoder && ((TieredDecoder) old).promoted == decoder) {
+            return;
+        }
+        generatedClassNames.remove(cacheKey);
+        Set<String> linked = dependencies.remove(cacheKey);
+        if (linked != null) {
+            for (String dependency : linked) {
+                Set<String> linking = dependents.get(dependency);
+                if (linking != null) {
+                    linking.remove(cacheKey);
+                }
+            }
+        }
+        dropDependents(cacheKey);
+    }
+
+    private static void dropDependents(String cacheKey) {
+        Set<String> linking = dependents.remove(cacheKey);
+        if (linking != null) {
+            for (String dependent : linking) {
+                // drops the decoders depending on the dependent in turn
+                JsoniterSpi.addNewDecoder(dependent, null);
+            }
+        }
+    }
+
+    // the decoder of the cache key if registered, otherwise a cell resolving it on first use
+    static Decoder linkedDecoder(String cacheKey) {
+        dependOn(cacheKey);
+        Decoder decoder = JsoniterSpi.getDecoder(cacheKey);
+        if (decoder != null) {
+            return decoder;
+        }
+        LinkedDecoder cell = cells.get(cacheKey);
+        if (cell == null) {
+            cell = new LinkedDecoder(cacheKey, null, null);
+            LinkedDecoder existing = cells.putIfAbsent(cacheKey, cell);
+            if (existing != null) {
+                cell = existing;
+            }
+        }
+        return cell;
+    }
+
+    private static Decoder gen(String cacheKey, Type type, Class clazz, Type[] typeArgs) {
+        Decoder decoder;
+        DecodingMode mode = chooseMode(clazz);
         if (mode == DecodingMode.REFLECTION_MODE) {
             decoder = ReflectionDecoderFactory.create(clazz, typeArgs);
             JsoniterSpi.addNewDecoder(cacheKey, decoder);
@@ -81,41 +229,401 @@ class Codegen {
                     throw new JsonException("static gen should provide the decoder we need, but failed to create the decoder", e);
                 }
             }
+            if (mode == DecodingMode.TIERED_MODE) {
+                decoder = new TieredDecoder(cacheKey, type, clazz, typeArgs,
+                        ReflectionDecoderFactory.create(clazz, typeArgs));
+                JsoniterSpi.addNewDecoder(cacheKey, decoder);
+                return decoder;
+            }
         }
-        String source = genSource(clazz, typeArgs);
-        source = "public static java.lang.Object decode_(com.jsoniter.JsonIterator iter) throws java.io.IOException { "
-                + source + "}";
+        decoder = genDynamic(cacheKey, type, clazz, typeArgs, mode);
+        JsoniterSpi.addNewDecoder(cacheKey, decoder);
+        return decoder;
+    }
+
+    // the decoder generated is registered by the caller
+    private static Decoder genDynamic(String cacheKey, Type type, Class clazz, Type[] typeArgs, DecodingMode mode) {
+        ProfiledDecoder profile = null;
+        if (profileWarmUp > 0 && isDoingStaticCodegen == null && shouldProfile(clazz, mode)) {
+            profile = new ProfiledDecoder(cacheKey, clazz, typeArgs, profileWarmUp);
+            profiles.put(cacheKey, profile);
+        }
+        String className = newClassName(cacheKey);
+        List<String> fields = new ArrayList<String>();
+        Linker outer = linker.get();
+        Linker current = new Linker(cacheKey, className, fields);
+        linker.set(current);
+        try {
+            List<String> methods = genMethods(clazz, typeArgs, mode, profile);
+            Decoder decoder = define(cacheKey, className, type, clazz, typeArgs, profile, fields, methods);
+            addDependencies(current);
+            return decoder;
+        } finally {
+            // generating a dependency generates another class in between
+            linker.set(outer);
+        }
+    }
+
+    // the loader still defines the class generated before for the name
+    private static String newClassName(String name) {
+        Integer defined = definedClassNames.get(name);
+        definedClassNames.put(name, defined == null ? 1 : defined + 1);
+        return defined == null ? name : name + "_" + defined;
+    }
+
+    private static Decoder define(String cacheKey, String className, Type type, Class clazz, Type[] typeArgs,
+                                  ProfiledDecoder profile, List<String> fields, List<String> methods) {
+        Decoder decoder = null;
         if ("true".equals(System.getenv("JSONITER_DEBUG"))) {
-            System.out.println(">>> " + cacheKey);
-            System.out.println(source);
+            System.out.println(">>> " + className);
+            for (String field : fields) {
+                System.out.println(field);
+            }
+            for (String method : methods) {
+                System.out.println(method);
+            }
         }
         try {
-            generatedClassNames.add(cacheKey);
             if (isDoingStaticCodegen == null) {
-                decoder = DynamicCodegen.gen(cacheKey, source);
+                decoder = DynamicCodegen.gen(clazz, typeArgs, className, fields, methods);
+                if (profile != null) {
+                    profile.setDecoder(decoder);
+                    decoder = profile;
+                }
             } else {
-                staticGen(cacheKey, source);
+                staticGen(cacheKey, fields, methods);
+            }
+            if (profile == null) {
+                // only once defined, classes generated by other threads might call it,
+                // profiled decoder will be replaced, can not be called statically
+                generatedClassNames.put(cacheKey, className);
             }
-            JsoniterSpi.addNewDecoder(cacheKey, decoder);
             return decoder;
         } catch (Exception e) {
             String msg = "failed to generate decoder for: " + type + " with " + Arrays.toString(typeArgs) + ", exception: " + e;
-            msg = msg + "\n" + source;
+            msg = msg + "\n" + methods.get(methods.size() - 1);
             throw new JsonException(msg, e);
         }
     }
 
-    private static void addPlaceholderDecoderToSupportRecursiveStructure(final String cacheKey) {
-        JsoniterSpi.addNewDecoder(cacheKey, new Decoder() {
+    // mode registered for the class or its package, then mode of @JsonObject, then the global mode
+    private static DecodingMode chooseMode(Class clazz) {
+        DecodingMode registeredMode = JsoniterSpi.getDecodingMode(clazz);
+        if (registeredMode != null) {
+            return registeredMode;
+        }
+        if (isObject(clazz)) {
+            DecodingMode annotatedMode = JsoniterSpi.getDecodingClassDescriptor(clazz, false).decodingMode;
+            if (annotatedMode != null) {
+                return annotatedMode;
+            }
+        }
+        return mode;
+    }
+
+    private static boolean isObject(Class clazz) {
+        return !clazz.isArray() && !clazz.isEnum()
+                && !Map.class.isAssignableFrom(clazz) && !Collection.class.isAssignableFrom(clazz);
+    }
+
+    private static boolean shouldProfile(Class clazz, DecodingMode mode) {
+        if (Map.class.isAssignableFrom(clazz)) {
+            return true;
+        }
+        if (Collection.class.isAssignableFrom(clazz)) {
+            return CodegenImplArray.WITH_CAPACITY_COLLECTION_CLASSES.contains(clazz);
+        }
+        if (clazz.isArray() || clazz.isEnum()) {
+            return false;
+        }
+        // order of cases does not matter to hash switch
+        return mode == DecodingMode.DYNAMIC_MODE_AND_MATCH_FIELD_IN_ORDER
+                || shouldUseStrictMode(JsoniterSpi.getDecodingClassDescriptor(clazz, false), mode);
+    }
+
+    static ProfiledDecoder getProfile(String cacheKey) {
+        return profiles.get(cacheKey);
+    }
+
+    // the decoders are no longer registered, the classes might be defined again by another loader
+    static void unloadCodecs(Set<String> cacheKeys) {
+        profiles.keySet().removeAll(cacheKeys);
+        generatedClassNames.keySet().removeAll(cacheKeys);
+        for (String cacheKey : cacheKeys) {
+            definedClassNames.remove(cacheKey);
+            definedClassNames.remove(cacheKey + "_profiled");
+        }
+        cells.keySet().removeAll(cacheKeys);
+        dependencies.keySet().removeAll(cacheKeys);
+        for (String cacheKey : cacheKeys) {
+            dropDependents(cacheKey);
+        }
+    }
+
+    static void regenerateInBackground(final ProfiledDecoder profile) {
+        backgroundCodegen.execute(new Runnable() {
             @Override
-            public Object decode(JsonIterator iter) throws IOException {
-                return JsoniterSpi.getDecoder(cacheKey).decode(iter);
+            public void run() {
+                regenerate(profile);
             }
         });
     }
 
-    public static boolean canStaticAccess(String cacheKey) {
-        return generatedClassNames.contains(cacheKey);
+    static void promoteInBackground(final TieredDecoder tiered) {
+        backgroundCodegen.execute(new Runnable() {
+            @Override
+            public void run() {
+                promote(tiered);
+            }
+        });
+    }
+
+    static synchronized void promote(TieredDecoder tiered) {
+        if (JsoniterSpi.getDecoder(tiered.cacheKey) != tiered) {
+            // replaced by registered decoder
+            return;
+        }
+        // tiered mode itself generates like the hash mode, a mode registered since then is followed
+        DecodingMode mode = chooseMode(tiered.clazz);
+        if (mode == DecodingMode.REFLECTION_MODE) {
+            return;
+        }
+        try {
+            tiered.promoted = genDynamic(tiered.cacheKey, tiered.type, tiered.clazz, tiered.typeArgs, mode);
+        } catch (Exception e) {
+            // keep decoding by reflection
+            return;
+        }
+        JsoniterSpi.addNewDecoder(tiered.cacheKey, tiered.promoted);
+    }
+
+    static synchronized void regenerate(ProfiledDecoder profile) {
+        if (profile.regenerated) {
+            return;
+        }
+        profile.regenerated = true;
+        String className = newClassName(profile.cacheKey + "_profiled");
+        List<String> fields = new ArrayList<String>();
+        Linker outer = linker.get();
+        Linker current = new Linker(profile.cacheKey, className, fields);
+        linker.set(current);
+        try {
+            List<String> methods = genMethods(profile.clazz, profile.typeArgs, chooseMode(profile.clazz), profile);
+            profile.setDecoder(DynamicCodegen.gen(profile.clazz, profile.typeArgs, className, fields, methods));
+            addDependencies(current);
+        } catch (Exception e) {
+            // keep using the profiled decoder
+        } finally {
+            linker.set(outer);
+        }
+    }
+
+    // the placeholder of a decoder being generated, linked by recursive structures,
+    // or the cell linked by a class initialized before the decoder is registered, the decoder is resolved on first use
+    static class LinkedDecoder implements Decoder {
+
+        private final String cacheKey;
+        // only known by the placeholder
+        private final Type type;
+        // the thread generating the decoder the placeholder stands for
+        private Thread generating;
+        private volatile Decoder resolved;
+
+        private LinkedDecoder(String cacheKey, Type type, Thread generating) {
+            this.cacheKey = cacheKey;
+            this.type = type;
+            this.generating = generating;
+        }
+
+        @Override
+        public Object decode(JsonIterator iter) throws IOException {
+            Decoder decoder = resolved;
+            if (decoder == null) {
+                decoder = resolve();
+            }
+            return decoder.decode(iter);
+        }
+
+        private Decoder resolve() {
+            Decoder decoder = lookUp();
+            if (decoder == this) {
+                awaitGenerated();
+                decoder = lookUp();
+                if (decoder == this) {
+                    throw new JsonException("failed to generate decoder of " + cacheKey);
+                }
+            }
+            if (decoder == null) {
+                throw new JsonException("decoder of " + cacheKey + " is not registered");
+            }
+            resolved = decoder;
+            return decoder;
+        }
+
+        private Decoder lookUp() {
+            return type == null ? JsoniterSpi.getDecoder(cacheKey) : getDecoder(cacheKey, type);
+        }
+
+        // the cell resolves the decoder registered next
+        private void unresolve() {
+            resolved = null;
+        }
+
+        private synchronized void awaitGenerated() {
+            if (generating == Thread.currentThread()) {
+                throw new JsonException("decoder of " + cacheKey + " is used while being generated");
+            }
+            while (generating != null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JsonException("interrupted while waiting for decoder of " + cacheKey, e);
+                }
+            }
+        }
+
+        private synchronized void generated() {
+            generating = null;
+            notifyAll();
+        }
+    }
+
+    // decode by reflection until the type is hot, then by the decoder generated in background
+    static class TieredDecoder implements Decoder {
+
+        private final String cacheKey;
+        private final Type type;
+        private final Class clazz;
+        private final Type[] typeArgs;
+        private final Decoder reflectionDecoder;
+        private volatile Decoder promoted;
+        // not synchronized, only need to be roughly right
+        private int decoded;
+        private boolean scheduled;
+
+        TieredDecoder(String cacheKey, Type type, Class clazz, Type[] typeArgs, Decoder reflectionDecoder) {
+            this.cacheKey = cacheKey;
+            this.type = type;
+            this.clazz = clazz;
+            this.typeArgs = typeArgs;
+            this.reflectionDecoder = reflectionDecoder;
+        }
+
+        @Override
+        public Object decode(JsonIterator iter) throws IOException {
+            Decoder decoder = promoted;
+            if (decoder != null) {
+                return decoder.decode(iter);
+            }
+            if (++decoded >= tieredThreshold && !scheduled) {
+                scheduled = true;
+                promoteInBackground(this);
+            }
+            return reflectionDecoder.decode(iter);
+        }
+    }
+
+    // helper methods first, decode_ last
+    private static List<String> genMethods(Class clazz, Type[] typeArgs, DecodingMode mode, ProfiledDecoder profile) {
+        List<String> methods = new ArrayList<String>();
+        String source = genSource(clazz, typeArgs, mode, profile, methods);
+        methods.add("public static java.lang.Object decode_(com.jsoniter.JsonIterator iter) throws java.io.IOException { "
+                + source + "}");
+        return methods;
+    }
+
+    /**
+     * link the decoder of the cache key into a static final field of the class being generated,
+     * instead of looking it up by cache key on every call
+     *
+     * @return name of the field, typed as Decoder
+     */
+    static String linkDecoder(String cacheKey) {
+        Linker linker = Codegen.linker.get();
+        dependOn(cacheKey);
+        return linker.link("decoder@" + cacheKey, "decoder", cacheKey.equals(linker.cacheKey)
+                // recursive structure, decode by ourselves
+                ? String.format("private static final com.jsoniter.spi.Decoder %%s = new %s();", linker.className)
+                : String.format("private static final com.jsoniter.spi.Decoder %%s = com.jsoniter.CodegenAccess.linkDecoder(\"%s\");", cacheKey));
+    }
+
+    /**
+     * link the registered decoder of the cache key, which decodes primitives without boxing
+     *
+     * @return name of the field, typed as the decoder class
+     */
+    static String linkDecoder(String cacheKey, Class<? extends Decoder> decoderClass) {
+        dependOn(cacheKey);
+        String typeName = decoderClass.getCanonicalName();
+        return linker.get().link(typeName + "@" + cacheKey, "decoder", String.format(
+                "private static final %s %%s = (%s) com.jsoniter.CodegenAccess.linkDecoder(\"%s\");",
+                typeName, typeName, cacheKey));
+    }
+
+    /**
+     * generated code calls the decode_ of the class defined for the cache key directly
+     *
+     * @return name of the class, null if there is none to call
+     */
+    static String linkClass(String cacheKey) {
+        String className = generatedClassNames.get(cacheKey);
+        if (className != null) {
+            dependOn(cacheKey);
+        }
+        return className;
+    }
+
+    // object factories are resolved once per class by JsoniterSpi.canCreate, safe to keep
+    static String linkObjectFactory(Class clazz) {
+        return linker.get().link("objectFactory@" + clazz.getName(), "objectFactory", String.format(
+                "private static final com.jsoniter.spi.Extension %%s = com.jsoniter.CodegenAccess.linkObjectFactory(%s.class);",
+                clazz.getCanonicalName()));
+    }
+
+    static String linkMaskedProperties(Class clazz, List<Binding> allBindings) {
+        StringBuilder names = new StringBuilder();
+        for (Binding binding : allBindings) {
+            if (names.length() > 0) {
+                names.append(',');
+            }
+            names.append(binding.name);
+        }
+        return linker.get().link("mask@" + clazz.getName(), "mask", String.format(
+                "private static final com.jsoniter.FieldMask.Properties %%s = com.jsoniter.CodegenAccess.maskedProperties(\"%s\", \"%s\");",
+                clazz.getName(), names));
+    }
+
+    static String linkProfile(ProfiledDecoder profile) {
+        return linker.get().link("profile@" + profile.cacheKey, "profile", String.format(
+                "private static final com.jsoniter.ProfiledDecoder %%s = com.jsoniter.CodegenAccess.profile(\"%s\");",
+                profile.cacheKey));
+    }
+
+    private static class Linker {
+
+        private final String cacheKey;
+        private final String className;
+        private final List<String> fields;
+        private final Map<String, String> linked = new HashMap<String, String>();
+        private final Set<String> dependencies = new HashSet<String>();
+
+        private Linker(String cacheKey, String className, List<String> fields) {
+            this.cacheKey = cacheKey;
+            this.className = className;
+            this.fields = fields;
+        }
+
+        // the field declaration has %s in place of the field name
+        private String link(String key, String prefix, String fieldDeclaration) {
+            String fieldName = linked.get(key);
+            if (fieldName == null) {
+                fieldName = prefix + fields.size();
+                linked.put(key, fieldName);
+                fields.add(String.format(fieldDeclaration, fieldName));
+            }
+            return fieldName;
+        }
     }
 
     private static Type chooseImpl(Type type) {
@@ -160,9 +668,7 @@ class Codegen {
                         "can not bind to generic collection without argument types, " +
                                 "try syntax like TypeLiteral<Map<String, String>>{}");
             }
-            if (keyType != String.class) {
-                throw new IllegalArgumentException("map key must be String");
-            }
+            MapKeyDecoders.registerOrGetExisting(keyType);
             if (clazz == Map.class) {
                 clazz = implClazz == null ? HashMap.class : implClazz;
             }
@@ -178,14 +684,14 @@ class Codegen {
         return type;
     }
 
-    private static void staticGen(String cacheKey, String source) throws IOException {
+    private static void staticGen(String cacheKey, List<String> fields, List<String> methods) throws IOException {
         createDir(cacheKey);
         String fileName = cacheKey.replace('.', '/') + ".java";
         FileOutputStream fileOutputStream = new FileOutputStream(new File(isDoingStaticCodegen.outputDir, fileName));
         try {
             OutputStreamWriter writer = new OutputStreamWriter(fileOutputStream);
             try {
-                staticGen(cacheKey, writer, source);
+                staticGen(cacheKey, writer, fields, methods);
             } finally {
                 writer.close();
             }
@@ -194,12 +700,19 @@ class Codegen {
         }
     }
 
-    private static void staticGen(String cacheKey, OutputStreamWriter writer, String source) throws IOException {
+    private static void staticGen(String cacheKey, OutputStreamWriter writer, List<String> fields, List<String> methods) throws IOException {
         String className = cacheKey.substring(cacheKey.lastIndexOf('.') + 1);
         String packageName = cacheKey.substring(0, cacheKey.lastIndexOf('.'));
         writer.write("package " + packageName + ";\n");
         writer.write("public class " + className + " implements com.jsoniter.spi.Decoder {\n");
-        writer.write(source);
+        for (String field : fields) {
+            writer.write(field);
+            writer.write("\n");
+        }
+        for (String method : methods) {
+            writer.write(method);
+            writer.write("\n");
+        }
         writer.write("public java.lang.Object decode(com.jsoniter.JsonIterator iter) throws java.io.IOException {\n");
         writer.write("return decode_(iter);\n");
         writer.write("}\n");
@@ -217,28 +730,32 @@ class Codegen {
         }
     }
 
-    private static String genSource(Class clazz, Type[] typeArgs) {
+    private static String genSource(Class clazz, Type[] typeArgs, DecodingMode mode, ProfiledDecoder profile,
+                                    List<String> methods) {
         if (clazz.isArray()) {
             return CodegenImplArray.genArray(clazz);
         }
         if (Map.class.isAssignableFrom(clazz)) {
-            return CodegenImplMap.genMap(clazz, typeArgs);
+            return CodegenImplMap.genMap(clazz, typeArgs, profile);
         }
         if (Collection.class.isAssignableFrom(clazz)) {
-            return CodegenImplArray.genCollection(clazz, typeArgs);
+            return CodegenImplArray.genCollection(clazz, typeArgs, profile);
         }
         if (clazz.isEnum()) {
             return CodegenImplEnum.genEnum(clazz);
         }
         ClassDescriptor desc = JsoniterSpi.getDecodingClassDescriptor(clazz, false);
-        if (shouldUseStrictMode(desc)) {
-            return CodegenImplObjectStrict.genObjectUsingStrict(clazz, desc);
+        if (mode == DecodingMode.DYNAMIC_MODE_AND_MATCH_FIELD_IN_ORDER) {
+            return CodegenImplObjectStrict.genObjectUsingStrict(clazz, desc, true, profile, methods);
+        }
+        if (shouldUseStrictMode(desc, mode)) {
+            return CodegenImplObjectStrict.genObjectUsingStrict(clazz, desc, false, profile, methods);
         } else {
-            return CodegenImplObjectHash.genObjectUsingHash(clazz, desc);
+            return CodegenImplObjectHash.genObjectUsingHash(clazz, desc, methods);
         }
     }
 
-    private static boolean shouldUseStrictMode(ClassDescriptor desc) {
+    private static boolean shouldUseStrictMode(ClassDescriptor desc, DecodingMode mode) {
         if (mode == DecodingMode.DYNAMIC_MODE_AND_MATCH_FIELD_STRICTLY) {
             return true;
         }
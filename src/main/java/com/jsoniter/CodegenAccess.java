@@ -5,6 +5,7 @@ import com.jsoniter.spi.*;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 // only uesd by generated code to access decoder
 public class CodegenAccess {
@@ -20,6 +21,112 @@ public class CodegenAccess {
         return col;
     }
 
+    public static void truncateList(List list, int size) {
+        // removing from the end does not shift or allocate
+        for (int i = list.size() - 1; i >= size; i--) {
+            list.remove(i);
+        }
+    }
+
+    public static StringBuilder readStringBuilder(JsonIterator iter) throws IOException {
+        return IterImplString.readString(iter, (StringBuilder) resetExistingObject(iter));
+    }
+
+    public static IntList readIntList(JsonIterator iter) throws IOException {
+        IntList list = (IntList) resetExistingObject(iter);
+        if (iter.readNull()) {
+            return null;
+        }
+        if (list == null) {
+            list = new IntList();
+        } else {
+            list.clear();
+        }
+        while (iter.readArray()) {
+            list.add(iter.readInt());
+        }
+        return list;
+    }
+
+    public static LongList readLongList(JsonIterator iter) throws IOException {
+        LongList list = (LongList) resetExistingObject(iter);
+        if (iter.readNull()) {
+            return null;
+        }
+        if (list == null) {
+            list = new LongList();
+        } else {
+            list.clear();
+        }
+        while (iter.readArray()) {
+            list.add(iter.readLong());
+        }
+        return list;
+    }
+
+    public static DoubleList readDoubleList(JsonIterator iter) throws IOException {
+        DoubleList list = (DoubleList) resetExistingObject(iter);
+        if (iter.readNull()) {
+            return null;
+        }
+        if (list == null) {
+            list = new DoubleList();
+        } else {
+            list.clear();
+        }
+        while (iter.readArray()) {
+            list.add(iter.readDouble());
+        }
+        return list;
+    }
+
+    public static int countRemainingElements(JsonIterator iter) {
+        return IterImplSkip.countRemainingElements(iter);
+    }
+
+    public static Object scratchArray(JsonIterator iter, int kind) {
+        if (iter.scratchArrays == null) {
+            return null;
+        }
+        return iter.scratchArrays[kind];
+    }
+
+    // keep the grown array, so that the next array decoded by the iterator does not grow again
+    public static void keepScratchArray(JsonIterator iter, int kind, Object arr) {
+        if (iter.scratchArrays == null) {
+            iter.scratchArrays = new Object[CodegenImplArray.SCRATCH_TYPES.size()];
+        }
+        iter.scratchArrays[kind] = arr;
+    }
+
+    // the comma separated property names of the class, in the order of the bindings
+    public static FieldMask.Properties maskedProperties(String className, String names) {
+        return new FieldMask.Properties(className, names.split(","));
+    }
+
+    // resolve the field mask of the read once per object, null if every property is bound
+    public static long[] masked(JsonIterator iter, FieldMask.Properties properties) {
+        FieldMask fieldMask = iter.fieldMask;
+        return fieldMask == null ? null : fieldMask.resolve(properties);
+    }
+
+    // skip the value of a property left out by the field mask of the read
+    public static boolean skipMasked(JsonIterator iter, long[] masked, int idx) throws IOException {
+        if (!isMasked(masked, idx)) {
+            return false;
+        }
+        iter.skip();
+        return true;
+    }
+
+    public static boolean isMasked(long[] masked, int idx) {
+        return masked != null && (masked[idx >> 6] & (1L << idx)) != 0;
+    }
+
+    public static boolean isRecycling(JsonIterator iter) {
+        return iter.recycling;
+    }
+
     public static Object existingObject(JsonIterator iter) {
         return iter.existingObject;
     }
@@ -87,6 +194,31 @@ public class CodegenAccess {
         return (T) Codegen.getDecoder(cacheKey, null).decode(iter);
     }
 
+    public static Decoder getDecoder(TypeLiteral typeLiteral) {
+        return Codegen.getDecoder(typeLiteral.getDecoderCacheKey(), typeLiteral.getType());
+    }
+
+    // the decoder registered, or a cell resolving it on first use
+    public static Decoder linkDecoder(String cacheKey) {
+        return Codegen.linkedDecoder(cacheKey);
+    }
+
+    public static void decoderReplaced(String cacheKey, Decoder old, Decoder decoder) {
+        Codegen.decoderReplaced(cacheKey, old, decoder);
+    }
+
+    public static Extension linkObjectFactory(Class clazz) {
+        return JsoniterSpi.getObjectFactory(clazz);
+    }
+
+    public static ProfiledDecoder profile(String cacheKey) {
+        return Codegen.getProfile(cacheKey);
+    }
+
+    public static void unloadCodecs(Set<String> cacheKeys) {
+        Codegen.unloadCodecs(cacheKeys);
+    }
+
     public static boolean readArrayStart(JsonIterator iter) throws IOException {
         byte c = IterImpl.nextToken(iter);
         if (c == '[') {
@@ -130,13 +262,40 @@ public class CodegenAccess {
     }
 
     public static final int readObjectFieldAsHash(JsonIterator iter) throws IOException {
-        return IterImpl.readObjectFieldAsHash(iter);
+        return IterImpl.readObjectFieldAsHash(iter, CodegenImplObjectHash.DEFAULT_SEED);
+    }
+
+    public static final int readObjectFieldAsHash(JsonIterator iter, int seed) throws IOException {
+        return IterImpl.readObjectFieldAsHash(iter, seed);
+    }
+
+    // the field name just hashed by readObjectFieldAsHash
+    public static final Slice hashedObjectField(JsonIterator iter) {
+        return iter.reusableSlice;
+    }
+
+    public static final Object readMapKey(String cacheKey, JsonIterator iter) throws IOException {
+        return readMapKey(JsoniterSpi.getDecoder(cacheKey), iter);
+    }
+
+    public static final Object readMapKey(Decoder mapKeyDecoder, JsonIterator iter) throws IOException {
+        Object key = mapKeyDecoder.decode(iter);
+        if (IterImpl.nextToken(iter) != ':') {
+            throw iter.reportError("readMapKey", "expect :");
+        }
+        return key;
     }
 
     public static final Slice readObjectFieldAsSlice(JsonIterator iter) throws IOException {
         return IterImpl.readObjectFieldAsSlice(iter);
     }
 
+    // for generated helper methods, which can not assign to the field of the caller
+    public static final void readObjectFieldAsSlice(JsonIterator iter, Slice field) throws IOException {
+        Slice next = IterImpl.readObjectFieldAsSlice(iter);
+        field.reset(next.data(), next.head(), next.tail());
+    }
+
     public static final Slice readSlice(JsonIterator iter) throws IOException {
         return IterImpl.readSlice(iter);
     }
@@ -165,6 +324,14 @@ public class CodegenAccess {
         return iter.head;
     }
 
+    public static int tail(JsonIterator iter) {
+        return iter.tail;
+    }
+
+    public static byte[] buf(JsonIterator iter) {
+        return iter.buf;
+    }
+
     public static void unreadByte(JsonIterator iter) throws IOException {
         iter.unreadByte();
     }
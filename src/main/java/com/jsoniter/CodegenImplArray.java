@@ -1,5 +1,8 @@
 package com.jsoniter;
 
+import com.jsoniter.spi.JsoniterSpi;
+import com.jsoniter.spi.TypeLiteral;
+
 import java.lang.reflect.Type;
 import java.util.*;
 
@@ -11,11 +14,14 @@ class CodegenImplArray {
         add(Vector.class);
     }};
 
+    // component types of the per iterator scratch arrays, indexed by kind
+    final static List<Class> SCRATCH_TYPES = Arrays.<Class>asList(
+            boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class);
+    // grown beyond this, the scratch array is not kept, one huge array does not stay with the iterator
+    final static int MAX_SCRATCH_LENGTH = 4096;
+
     public static String genArray(Class clazz) {
         Class compType = clazz.getComponentType();
-        if (compType.isArray()) {
-            throw new IllegalArgumentException("nested array not supported: " + clazz.getCanonicalName());
-        }
         StringBuilder lines = new StringBuilder();
         append(lines, "com.jsoniter.CodegenAccess.resetExistingObject(iter);");
         append(lines, "byte nextToken = com.jsoniter.CodegenAccess.readByte(iter);");
@@ -33,27 +39,51 @@ class CodegenImplArray {
         append(lines, "}");
         append(lines, "nextToken = com.jsoniter.CodegenAccess.nextToken(iter);");
         append(lines, "if (nextToken == ']') {");
-        append(lines, "return new {{comp}}[0];");
+        append(lines, "return " + newArray(compType, "0") + ";");
         append(lines, "}");
         append(lines, "com.jsoniter.CodegenAccess.unreadByte(iter);");
         append(lines, "{{comp}} a1 = {{op}};");
         append(lines, "if (!com.jsoniter.CodegenAccess.nextTokenIsComma(iter)) {");
-        append(lines, "return new {{comp}}[]{ a1 };");
+        appendReturnElements(lines, compType, 1);
         append(lines, "}");
         append(lines, "{{comp}} a2 = {{op}};");
         append(lines, "if (!com.jsoniter.CodegenAccess.nextTokenIsComma(iter)) {");
-        append(lines, "return new {{comp}}[]{ a1, a2 };");
+        appendReturnElements(lines, compType, 2);
         append(lines, "}");
         append(lines, "{{comp}} a3 = {{op}};");
         append(lines, "if (!com.jsoniter.CodegenAccess.nextTokenIsComma(iter)) {");
-        append(lines, "return new {{comp}}[]{ a1, a2, a3 };");
+        appendReturnElements(lines, compType, 3);
         append(lines, "}");
         append(lines, "{{comp}} a4 = ({{comp}}) {{op}};");
         append(lines, "if (!com.jsoniter.CodegenAccess.nextTokenIsComma(iter)) {");
-        append(lines, "return new {{comp}}[]{ a1, a2, a3, a4 };");
+        appendReturnElements(lines, compType, 4);
         append(lines, "}");
         append(lines, "{{comp}} a5 = ({{comp}}) {{op}};");
-        append(lines, "{{comp}}[] arr = new {{comp}}[10];");
+        // the rest of the array is in the buffer, count it to allocate once
+        append(lines, "int more = com.jsoniter.CodegenAccess.countRemainingElements(iter);");
+        append(lines, "if (more != -1) {");
+        append(lines, "{{comp}}[] result = " + newArray(compType, "5 + more") + ";");
+        append(lines, "result[0] = a1;");
+        append(lines, "result[1] = a2;");
+        append(lines, "result[2] = a3;");
+        append(lines, "result[3] = a4;");
+        append(lines, "result[4] = a5;");
+        append(lines, "for (int i = 5; i < result.length; i++) {");
+        append(lines, "com.jsoniter.CodegenAccess.nextToken(iter);");
+        append(lines, "result[i] = {{op}};");
+        append(lines, "}");
+        append(lines, "com.jsoniter.CodegenAccess.nextToken(iter);");
+        append(lines, "return result;");
+        append(lines, "}");
+        int scratchKind = scratchKind(compType);
+        if (scratchKind == -1) {
+            append(lines, "{{comp}}[] arr = " + newArray(compType, "10") + ";");
+        } else {
+            append(lines, "{{comp}}[] arr = ({{comp}}[]) com.jsoniter.CodegenAccess.scratchArray(iter, " + scratchKind + ");");
+            append(lines, "if (arr == null) {");
+            append(lines, "arr = " + newArray(compType, "10") + ";");
+            append(lines, "}");
+        }
         append(lines, "arr[0] = a1;");
         append(lines, "arr[1] = a2;");
         append(lines, "arr[2] = a3;");
@@ -62,14 +92,19 @@ class CodegenImplArray {
         append(lines, "int i = 5;");
         append(lines, "while (com.jsoniter.CodegenAccess.nextTokenIsComma(iter)) {");
         append(lines, "if (i == arr.length) {");
-        append(lines, "{{comp}}[] newArr = new {{comp}}[arr.length * 2];");
+        append(lines, "{{comp}}[] newArr = " + newArray(compType, "arr.length * 2") + ";");
         append(lines, "System.arraycopy(arr, 0, newArr, 0, arr.length);");
         append(lines, "arr = newArr;");
         append(lines, "}");
         append(lines, "arr[i++] = {{op}};");
         append(lines, "}");
 //        append(lines, "if (c != ']') { com.jsoniter.CodegenAccess.reportIncompleteArray(iter); }");
-        append(lines, "{{comp}}[] result = new {{comp}}[i];");
+        if (scratchKind != -1) {
+            append(lines, "if (arr.length <= " + MAX_SCRATCH_LENGTH + ") {");
+            append(lines, "com.jsoniter.CodegenAccess.keepScratchArray(iter, " + scratchKind + ", arr);");
+            append(lines, "}");
+        }
+        append(lines, "{{comp}}[] result = " + newArray(compType, "i") + ";");
         append(lines, "System.arraycopy(arr, 0, result, 0, i);");
         append(lines, "return result;");
         return lines.toString().replace(
@@ -77,25 +112,105 @@ class CodegenImplArray {
                 "{{op}}", CodegenImplNative.genReadOp(compType));
     }
 
+    // elements read directly from the iterator do not decode other arrays in between,
+    // so the array is free to use the scratch of the iterator while growing
+    private static int scratchKind(Class compType) {
+        if (!compType.isPrimitive()) {
+            return -1;
+        }
+        if (JsoniterSpi.getDecoder(TypeLiteral.create(compType).getDecoderCacheKey()) != null) {
+            return -1;
+        }
+        return SCRATCH_TYPES.indexOf(compType);
+    }
+
+    // nested array initializer is not supported by javassist
+    private static void appendReturnElements(StringBuilder lines, Class compType, int count) {
+        append(lines, "{{comp}}[] result = " + newArray(compType, String.valueOf(count)) + ";");
+        for (int i = 0; i < count; i++) {
+            append(lines, "result[" + i + "] = a" + (i + 1) + ";");
+        }
+        append(lines, "return result;");
+    }
+
+    // the length goes into the first dimension, new int[n][] for int[][]
+    private static String newArray(Class compType, String length) {
+        String compTypeName = compType.getCanonicalName();
+        int dimensions = compTypeName.indexOf('[');
+        if (dimensions == -1) {
+            return "new " + compTypeName + "[" + length + "]";
+        }
+        return "new " + compTypeName.substring(0, dimensions) + "[" + length + "]" + compTypeName.substring(dimensions);
+    }
+
     public static String genCollection(Class clazz, Type[] typeArgs) {
+        return genCollection(clazz, typeArgs, null);
+    }
+
+    public static String genCollection(Class clazz, Type[] typeArgs, ProfiledDecoder profile) {
         if (WITH_CAPACITY_COLLECTION_CLASSES.contains(clazz)) {
-            return CodegenImplArray.genCollectionWithCapacity(clazz, typeArgs[0]);
+            return CodegenImplArray.genCollectionWithCapacity(clazz, typeArgs[0], profile);
         } else {
             return CodegenImplArray.genCollectionWithoutCapacity(clazz, typeArgs[0]);
         }
     }
 
-    private static String genCollectionWithCapacity(Class clazz, Type compType) {
+    // elements of array backed lists of non native values can be decoded into
+    static boolean canRecycle(Class clazz, Type compType) {
+        if (!List.class.isAssignableFrom(clazz) || !RandomAccess.class.isAssignableFrom(clazz)) {
+            return false;
+        }
+        if (compType instanceof Class && (((Class) compType).isArray() || ((Class) compType).isEnum())) {
+            return false;
+        }
+        return !TypeLiteral.nativeTypes.containsKey(compType);
+    }
+
+    // decode into the existing elements when the read is recycling, then drop the extra ones
+    private static void appendRecycle(StringBuilder lines, Class clazz, Type compType, ProfiledDecoder profile) {
+        if (!canRecycle(clazz, compType)) {
+            return;
+        }
+        append(lines, "if (col != null && com.jsoniter.CodegenAccess.isRecycling(iter)) {");
+        append(lines, "int size = col.size();");
+        append(lines, "int i = 0;");
+        append(lines, "boolean more = com.jsoniter.CodegenAccess.readArrayStart(iter);");
+        append(lines, "while (more) {");
+        append(lines, "if (i < size) {");
+        append(lines, "com.jsoniter.CodegenAccess.setExistingObject(iter, col.get(i));");
+        append(lines, "col.set(i, {{op}});");
+        // in case the decoder does not take it
+        append(lines, "com.jsoniter.CodegenAccess.resetExistingObject(iter);");
+        append(lines, "} else {");
+        append(lines, "col.add({{op}});");
+        append(lines, "}");
+        append(lines, "i++;");
+        append(lines, "more = com.jsoniter.CodegenAccess.nextToken(iter) == ',';");
+        append(lines, "}");
+        append(lines, "com.jsoniter.CodegenAccess.truncateList(col, i);");
+        appendProfile(lines, profile, "i");
+        append(lines, "return col;");
+        append(lines, "}");
+    }
+
+    private static String genCollectionWithCapacity(Class clazz, Type compType, ProfiledDecoder profile) {
+        int capacity = 8;
+        if (CodegenImplObjectStrict.isRegenerating(profile)) {
+            capacity = Math.max(capacity, profile.averageSize());
+        }
         StringBuilder lines = new StringBuilder();
         append(lines, "{{clazz}} col = ({{clazz}})com.jsoniter.CodegenAccess.resetExistingObject(iter);");
         append(lines, "if (iter.readNull()) { com.jsoniter.CodegenAccess.resetExistingObject(iter); return null; }");
+        appendRecycle(lines, clazz, compType, profile);
         append(lines, "if (!com.jsoniter.CodegenAccess.readArrayStart(iter)) {");
+        appendProfile(lines, profile, "0");
         append(lines, "return col == null ? new {{clazz}}(0): ({{clazz}})com.jsoniter.CodegenAccess.reuseCollection(col);");
         append(lines, "}");
         append(lines, "Object a1 = {{op}};");
         append(lines, "if (com.jsoniter.CodegenAccess.nextToken(iter) != ',') {");
         append(lines, "{{clazz}} obj = col == null ? new {{clazz}}(1): ({{clazz}})com.jsoniter.CodegenAccess.reuseCollection(col);");
         append(lines, "obj.add(a1);");
+        appendProfile(lines, profile, "1");
         append(lines, "return obj;");
         append(lines, "}");
         append(lines, "Object a2 = {{op}};");
@@ -103,6 +218,7 @@ class CodegenImplArray {
         append(lines, "{{clazz}} obj = col == null ? new {{clazz}}(2): ({{clazz}})com.jsoniter.CodegenAccess.reuseCollection(col);");
         append(lines, "obj.add(a1);");
         append(lines, "obj.add(a2);");
+        appendProfile(lines, profile, "2");
         append(lines, "return obj;");
         append(lines, "}");
         append(lines, "Object a3 = {{op}};");
@@ -111,10 +227,24 @@ class CodegenImplArray {
         append(lines, "obj.add(a1);");
         append(lines, "obj.add(a2);");
         append(lines, "obj.add(a3);");
+        appendProfile(lines, profile, "3");
         append(lines, "return obj;");
         append(lines, "}");
         append(lines, "Object a4 = {{op}};");
-        append(lines, "{{clazz}} obj = col == null ? new {{clazz}}(8): ({{clazz}})com.jsoniter.CodegenAccess.reuseCollection(col);");
+        append(lines, "{{clazz}} obj;");
+        append(lines, "if (col == null) {");
+        // the reused collection keeps its capacity, only a new one is sized from the rest of the array
+        append(lines, "int more = com.jsoniter.CodegenAccess.countRemainingElements(iter);");
+        if (Set.class.isAssignableFrom(clazz)) {
+            // no rehash under the default load factor
+            append(lines, "int capacity = more == -1 ? " + capacity + " : (4 + more) * 4 / 3 + 1;");
+        } else {
+            append(lines, "int capacity = more == -1 ? " + capacity + " : 4 + more;");
+        }
+        append(lines, "obj = new {{clazz}}(capacity);");
+        append(lines, "} else {");
+        append(lines, "obj = ({{clazz}})com.jsoniter.CodegenAccess.reuseCollection(col);");
+        append(lines, "}");
         append(lines, "obj.add(a1);");
         append(lines, "obj.add(a2);");
         append(lines, "obj.add(a3);");
@@ -122,16 +252,26 @@ class CodegenImplArray {
         append(lines, "while (com.jsoniter.CodegenAccess.nextToken(iter) == ',') {");
         append(lines, "obj.add({{op}});");
         append(lines, "}");
+        appendProfile(lines, profile, "obj.size()");
         append(lines, "return obj;");
         return lines.toString().replace(
                 "{{clazz}}", clazz.getName()).replace(
                 "{{op}}", CodegenImplNative.genReadOp(compType));
     }
 
+    // every decoded collection counts to the average size, the short ones too
+    private static void appendProfile(StringBuilder lines, ProfiledDecoder profile, String size) {
+        if (CodegenImplObjectStrict.isProfiling(profile)) {
+            append(lines, CodegenImplObjectStrict.genProfile(profile) + ".size(" + size + ");");
+            append(lines, CodegenImplObjectStrict.genProfile(profile) + ".decoded();");
+        }
+    }
+
     private static String genCollectionWithoutCapacity(Class clazz, Type compType) {
         StringBuilder lines = new StringBuilder();
         append(lines, "if (iter.readNull()) { com.jsoniter.CodegenAccess.resetExistingObject(iter); return null; }");
         append(lines, "{{clazz}} col = ({{clazz}})com.jsoniter.CodegenAccess.resetExistingObject(iter);");
+        appendRecycle(lines, clazz, compType, null);
         append(lines, "if (!com.jsoniter.CodegenAccess.readArrayStart(iter)) {");
         append(lines, "return col == null ? new {{clazz}}(): ({{clazz}})com.jsoniter.CodegenAccess.reuseCollection(col);");
         append(lines, "}");
@@ -1,28 +1,65 @@
 package com.jsoniter;
 
 import java.lang.reflect.Type;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 
 class CodegenImplMap {
 
     public static String genMap(Class clazz, Type[] typeArgs) {
+        return genMap(clazz, typeArgs, null);
+    }
+
+    public static String genMap(Class clazz, Type[] typeArgs, ProfiledDecoder profile) {
+        Type keyType = typeArgs[0];
         Type valueType = typeArgs[1];
+        String capacity = "";
+        if (CodegenImplObjectStrict.isRegenerating(profile) && profile.averageSize() > 0 && hasCapacityCtor(clazz)) {
+            capacity = String.valueOf(profile.averageSize() * 4 / 3 + 1);
+        }
         StringBuilder lines = new StringBuilder();
         append(lines, "{{clazz}} map = ({{clazz}})com.jsoniter.CodegenAccess.resetExistingObject(iter);");
         append(lines, "if (iter.readNull()) { return null; }");
-        append(lines, "if (map == null) { map = new {{clazz}}(); }");
+        if (EnumMap.class.isAssignableFrom(clazz)) {
+            capacity = ((Class) keyType).getCanonicalName() + ".class";
+        }
+        append(lines, "if (map == null) { map = new {{clazz}}(" + capacity + "); }");
         append(lines, "if (!com.jsoniter.CodegenAccess.readObjectStart(iter)) {");
+        appendProfile(lines, profile);
         append(lines, "return map;");
         append(lines, "}");
         append(lines, "do {");
-        append(lines, "String field = com.jsoniter.CodegenAccess.readObjectFieldAsString(iter);");
+        if (keyType == String.class) {
+            append(lines, "String field = com.jsoniter.CodegenAccess.readObjectFieldAsString(iter);");
+        } else {
+            // registered by chooseImpl, linked like the decoders of values
+            String keyDecoder = Codegen.linkDecoder(MapKeyDecoders.getCacheKey(keyType));
+            append(lines, "Object field = com.jsoniter.CodegenAccess.readMapKey(" + keyDecoder + ", iter);");
+        }
         append(lines, "map.put(field, {{op}});");
         append(lines, "} while (com.jsoniter.CodegenAccess.nextToken(iter) == ',');");
+        appendProfile(lines, profile);
         append(lines, "return map;");
         return lines.toString().replace("{{clazz}}", clazz.getName()).replace("{{op}}", CodegenImplNative.genReadOp(valueType));
     }
 
+    private static void appendProfile(StringBuilder lines, ProfiledDecoder profile) {
+        if (CodegenImplObjectStrict.isProfiling(profile)) {
+            append(lines, CodegenImplObjectStrict.genProfile(profile) + ".size(map.size());");
+            append(lines, CodegenImplObjectStrict.genProfile(profile) + ".decoded();");
+        }
+    }
+
+    private static boolean hasCapacityCtor(Class clazz) {
+        try {
+            clazz.getConstructor(int.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     private static void append(StringBuilder lines, String str) {
         lines.append(str);
         lines.append("\n");
@@ -32,6 +32,10 @@ class CodegenImplNative {
         put(BigDecimal.class.getName(), "iter.readBigDecimal()");
         put(BigInteger.class.getName(), "iter.readBigInteger()");
         put(String.class.getName(), "iter.readString()");
+        put(StringBuilder.class.getName(), "com.jsoniter.CodegenAccess.readStringBuilder(iter)");
+        put(IntList.class.getName(), "com.jsoniter.CodegenAccess.readIntList(iter)");
+        put(LongList.class.getName(), "com.jsoniter.CodegenAccess.readLongList(iter)");
+        put(DoubleList.class.getName(), "com.jsoniter.CodegenAccess.readDoubleList(iter)");
         put(Object.class.getName(), "iter.read()");
         put(Any.class.getName(), "iter.readAny()");
     }};
@@ -150,6 +154,30 @@ class CodegenImplNative {
                 return iter.readString();
             }
         });
+        put(StringBuilder.class, new Decoder() {
+            @Override
+            public Object decode(JsonIterator iter) throws IOException {
+                return CodegenAccess.readStringBuilder(iter);
+            }
+        });
+        put(IntList.class, new Decoder() {
+            @Override
+            public Object decode(JsonIterator iter) throws IOException {
+                return CodegenAccess.readIntList(iter);
+            }
+        });
+        put(LongList.class, new Decoder() {
+            @Override
+            public Object decode(JsonIterator iter) throws IOException {
+                return CodegenAccess.readLongList(iter);
+            }
+        });
+        put(DoubleList.class, new Decoder() {
+            @Override
+            public Object decode(JsonIterator iter) throws IOException {
+                return CodegenAccess.readDoubleList(iter);
+            }
+        });
         put(Object.class, new Decoder() {
             @Override
             public Object decode(JsonIterator iter) throws IOException {
@@ -206,62 +234,40 @@ class CodegenImplNative {
                     }
                 }
                 Codegen.getDecoder(cacheKey, valueType);
-                if (Codegen.canStaticAccess(cacheKey)) {
-                    return String.format("%s.decode_(iter)", cacheKey);
+                String className = Codegen.linkClass(cacheKey);
+                if (className != null) {
+                    return String.format("%s.decode_(iter)", className);
                 } else {
-                    // can not use static "decode_" method to access, go through codegen cache
-                    return String.format("com.jsoniter.CodegenAccess.read(\"%s\", iter)", cacheKey);
+                    // can not use static "decode_" method to access, go through the linked decoder
+                    return String.format("%s.decode(iter)", Codegen.linkDecoder(cacheKey));
                 }
             }
         }
         if (valueType == boolean.class) {
-            if (!(decoder instanceof Decoder.BooleanDecoder)) {
-                throw new JsonException("decoder for " + cacheKey + "must implement Decoder.BooleanDecoder");
-            }
-            return String.format("com.jsoniter.CodegenAccess.readBoolean(\"%s\", iter)", cacheKey);
-        }
-        if (valueType == byte.class) {
-            if (!(decoder instanceof Decoder.ShortDecoder)) {
-                throw new JsonException("decoder for " + cacheKey + "must implement Decoder.ShortDecoder");
-            }
-            return String.format("com.jsoniter.CodegenAccess.readShort(\"%s\", iter)", cacheKey);
+            return genTypedReadOp(cacheKey, decoder, Decoder.BooleanDecoder.class, "decodeBoolean");
         }
-        if (valueType == short.class) {
-            if (!(decoder instanceof Decoder.ShortDecoder)) {
-                throw new JsonException("decoder for " + cacheKey + "must implement Decoder.ShortDecoder");
-            }
-            return String.format("com.jsoniter.CodegenAccess.readShort(\"%s\", iter)", cacheKey);
-        }
-        if (valueType == char.class) {
-            if (!(decoder instanceof Decoder.IntDecoder)) {
-                throw new JsonException("decoder for " + cacheKey + "must implement Decoder.IntDecoder");
-            }
-            return String.format("com.jsoniter.CodegenAccess.readInt(\"%s\", iter)", cacheKey);
+        if (valueType == byte.class || valueType == short.class) {
+            return genTypedReadOp(cacheKey, decoder, Decoder.ShortDecoder.class, "decodeShort");
         }
-        if (valueType == int.class) {
-            if (!(decoder instanceof Decoder.IntDecoder)) {
-                throw new JsonException("decoder for " + cacheKey + "must implement Decoder.IntDecoder");
-            }
-            return String.format("com.jsoniter.CodegenAccess.readInt(\"%s\", iter)", cacheKey);
+        if (valueType == char.class || valueType == int.class) {
+            return genTypedReadOp(cacheKey, decoder, Decoder.IntDecoder.class, "decodeInt");
         }
         if (valueType == long.class) {
-            if (!(decoder instanceof Decoder.LongDecoder)) {
-                throw new JsonException("decoder for " + cacheKey + "must implement Decoder.LongDecoder");
-            }
-            return String.format("com.jsoniter.CodegenAccess.readLong(\"%s\", iter)", cacheKey);
+            return genTypedReadOp(cacheKey, decoder, Decoder.LongDecoder.class, "decodeLong");
         }
         if (valueType == float.class) {
-            if (!(decoder instanceof Decoder.FloatDecoder)) {
-                throw new JsonException("decoder for " + cacheKey + "must implement Decoder.FloatDecoder");
-            }
-            return String.format("com.jsoniter.CodegenAccess.readFloat(\"%s\", iter)", cacheKey);
+            return genTypedReadOp(cacheKey, decoder, Decoder.FloatDecoder.class, "decodeFloat");
         }
         if (valueType == double.class) {
-            if (!(decoder instanceof Decoder.DoubleDecoder)) {
-                throw new JsonException("decoder for " + cacheKey + "must implement Decoder.DoubleDecoder");
-            }
-            return String.format("com.jsoniter.CodegenAccess.readDouble(\"%s\", iter)", cacheKey);
+            return genTypedReadOp(cacheKey, decoder, Decoder.DoubleDecoder.class, "decodeDouble");
+        }
+        return String.format("%s.decode(iter)", Codegen.linkDecoder(cacheKey));
+    }
+
+    private static String genTypedReadOp(String cacheKey, Decoder decoder, Class<? extends Decoder> decoderClass, String method) {
+        if (!decoderClass.isInstance(decoder)) {
+            throw new JsonException("decoder for " + cacheKey + "must implement Decoder." + decoderClass.getSimpleName());
         }
-        return String.format("com.jsoniter.CodegenAccess.read(\"%s\", iter)", cacheKey);
+        return String.format("%s.%s(iter)", Codegen.linkDecoder(cacheKey, decoderClass), method);
     }
 }
@@ -2,15 +2,24 @@ package com.jsoniter;
 
 import com.jsoniter.spi.*;
 
+import java.io.UnsupportedEncodingException;
 import java.util.*;
 
 public class CodegenImplObjectHash {
 
+    static final int DEFAULT_SEED = 0x811c9dc5;
+    private static final int MAX_SEED_TRIALS = 4096;
+    private static final int FIELDS_PER_METHOD = 16;
+
     // the implementation is from dsljson, it is the fastest although has the risk not matching field strictly
-    public static String genObjectUsingHash(Class clazz, ClassDescriptor desc) {
+    public static String genObjectUsingHash(Class clazz, ClassDescriptor desc, List<String> methods) {
+        // wide class binds to obj in helper methods, to keep decode_ small enough to be jit compiled
+        boolean split = CodegenImplObjectStrict.shouldSplit(desc);
+        List<Binding> allBindings = desc.allDecoderBindings();
         StringBuilder lines = new StringBuilder();
         // === if null, return null
         append(lines, "java.lang.Object existingObj = com.jsoniter.CodegenAccess.resetExistingObject(iter);");
+        append(lines, genMasked(clazz, allBindings));
         append(lines, "byte nextToken = com.jsoniter.CodegenAccess.readByte(iter);");
         append(lines, "if (nextToken != '{') {");
         append(lines, "if (nextToken == 'n') {");
@@ -42,61 +51,77 @@ public class CodegenImplObjectHash {
         append(lines, "}");
         append(lines, "} // end of if end");
         append(lines, "} else { com.jsoniter.CodegenAccess.unreadByte(iter); }// end of if not quote");
-        for (Binding field : desc.fields) {
-            appendVarDef(lines, field);
-        }
-        for (Binding setter : desc.setters) {
-            appendVarDef(lines, setter);
-        }
-        for (WrapperDescriptor setter : desc.wrappers) {
-            for (Binding param : setter.parameters) {
-                appendVarDef(lines, param);
+        if (!split) {
+            for (Binding field : desc.fields) {
+                appendVarDef(lines, field);
+            }
+            for (Binding setter : desc.setters) {
+                appendVarDef(lines, setter);
+            }
+            for (WrapperDescriptor setter : desc.wrappers) {
+                for (Binding param : setter.parameters) {
+                    appendVarDef(lines, param);
+                }
             }
         }
         // === bind fields
-        HashSet<Integer> knownHashes = new HashSet<Integer>();
         HashMap<String, Binding> bindings = new HashMap<String, Binding>();
-        for (Binding binding : desc.allDecoderBindings()) {
+        for (Binding binding : allBindings) {
             for (String fromName : binding.fromNames) {
                 bindings.put(fromName, binding);
             }
         }
         ArrayList<String> fromNames = new ArrayList<String>(bindings.keySet());
+        final Integer seed = findPerfectSeed(fromNames);
+        if (seed == null) {
+            // can not find a seed to tell the fields apart, should be very rare
+            return CodegenImplObjectStrict.genObjectUsingStrict(clazz, desc, methods);
+        }
         Collections.sort(fromNames, new Comparator<String>() {
             @Override
             public int compare(String o1, String o2) {
-                int x = calcHash(o1);
-                int y = calcHash(o2);
+                int x = calcHash(o1, seed);
+                int y = calcHash(o2, seed);
                 return (x < y) ? -1 : ((x == y) ? 0 : 1);
             }
         });
+        if (split) {
+            append(lines, CodegenImplNative.getTypeName(clazz) + " obj = {{newInst}};");
+            append(lines, "do {");
+            append(lines, "int hash = com.jsoniter.CodegenAccess.readObjectFieldAsHash(iter, " + seed + ");");
+            lines.append(genHashHelpers(desc, fromNames, bindings, seed, methods));
+            append(lines, "iter.skip();");
+            append(lines, "} while (com.jsoniter.CodegenAccess.nextTokenIsComma(iter));");
+            appendWrappers(desc.wrappers, lines);
+            append(lines, "return obj;");
+            return lines.toString()
+                    .replace("{{clazz}}", clazz.getCanonicalName())
+                    .replace("{{newInst}}", genNewInstCode(clazz, desc.ctor));
+        }
         // === bind more fields
+        append(lines, "com.jsoniter.Slice field = null;");
         append(lines, "do {");
-        append(lines, "switch (com.jsoniter.CodegenAccess.readObjectFieldAsHash(iter)) {");
+        append(lines, "switch (com.jsoniter.CodegenAccess.readObjectFieldAsHash(iter, " + seed + ")) {");
         for (String fromName : fromNames) {
-            int intHash = calcHash(fromName);
-            if (intHash == 0) {
-                // hash collision, 0 can not be used as sentinel
-                return CodegenImplObjectStrict.genObjectUsingStrict(clazz, desc);
-            }
-            if (knownHashes.contains(intHash)) {
-                // hash collision with other field can not be used as sentinel
-                return CodegenImplObjectStrict.genObjectUsingStrict(clazz, desc);
-            }
-            knownHashes.add(intHash);
-            append(lines, "case " + intHash + ": ");
-            appendBindingSet(lines, desc, bindings.get(fromName));
+            append(lines, "case " + calcHash(fromName, seed) + ": ");
+            // unknown field might have the same hash
+            append(lines, "field = com.jsoniter.CodegenAccess.hashedObjectField(iter);");
+            append(lines, "if (" + genFieldMatch(fromName) + ") {");
+            appendBindingSet(lines, desc, allBindings, bindings.get(fromName));
             append(lines, "continue;");
+            append(lines, "}");
+            append(lines, "break;");
         }
         append(lines, "}");
         append(lines, "iter.skip();");
         append(lines, "} while (com.jsoniter.CodegenAccess.nextTokenIsComma(iter));");
         append(lines, CodegenImplNative.getTypeName(clazz) + " obj = {{newInst}};");
+        // a masked property keeps the value of the existing object
         for (Binding field : desc.fields) {
-            append(lines, String.format("obj.%s = _%s_;", field.field.getName(), field.name));
+            append(lines, genIfNotMaskedSet(field, allBindings, String.format("obj.%s = _%s_;", field.field.getName(), field.name)));
         }
         for (Binding setter : desc.setters) {
-            append(lines, String.format("obj.%s(_%s_);", setter.method.getName(), setter.name));
+            append(lines, genIfNotMaskedSet(setter, allBindings, String.format("obj.%s(_%s_);", setter.method.getName(), setter.name)));
         }
         appendWrappers(desc.wrappers, lines);
         append(lines, "return obj;");
@@ -105,17 +130,195 @@ public class CodegenImplObjectHash {
                 .replace("{{newInst}}", genNewInstCode(clazz, desc.ctor));
     }
 
+    // field names sorted by hash are cut into chunks, each chunk is a switch in its own helper,
+    // decode_ picks the helper by the hash range of the chunk
+    private static String genHashHelpers(ClassDescriptor desc, List<String> fromNames, Map<String, Binding> bindings,
+                                         int seed, List<String> methods) {
+        String clazz = desc.clazz.getCanonicalName();
+        List<Binding> allBindings = desc.allDecoderBindings();
+        StringBuilder dispatch = new StringBuilder();
+        for (int i = 0; i < fromNames.size(); i += FIELDS_PER_METHOD) {
+            String helperName = "fields" + (i / FIELDS_PER_METHOD) + "_";
+            List<String> chunk = fromNames.subList(i, Math.min(fromNames.size(), i + FIELDS_PER_METHOD));
+            StringBuilder helper = new StringBuilder();
+            append(helper, "private static boolean " + helperName + "(com.jsoniter.JsonIterator iter, int hash, "
+                    + clazz + " obj, long[] masked) throws java.io.IOException {");
+            append(helper, "com.jsoniter.Slice field = null;");
+            append(helper, "switch (hash) {");
+            for (String fromName : chunk) {
+                append(helper, "case " + calcHash(fromName, seed) + ": ");
+                // unknown field might have the same hash
+                append(helper, "field = com.jsoniter.CodegenAccess.hashedObjectField(iter);");
+                append(helper, "if (" + genFieldMatch(fromName) + ") {");
+                appendBindingSetToObj(helper, allBindings, bindings.get(fromName));
+                append(helper, "return true;");
+                append(helper, "}");
+                append(helper, "break;");
+            }
+            append(helper, "}");
+            append(helper, "return false;");
+            append(helper, "}");
+            methods.add(helper.toString());
+            String call = "if (" + helperName + "(iter, hash, obj, masked)) { continue; }";
+            if (i + FIELDS_PER_METHOD >= fromNames.size()) {
+                append(dispatch, (i == 0 ? "" : "else ") + call);
+            } else {
+                int upperBound = calcHash(chunk.get(chunk.size() - 1), seed);
+                append(dispatch, String.format("%sif (hash <= %d) { %s }", i == 0 ? "" : "else ", upperBound, call));
+            }
+        }
+        return dispatch.toString();
+    }
+
     public static int calcHash(String fromName) {
-        long hash = 0x811c9dc5;
-        for (byte b : fromName.getBytes()) {
+        return calcHash(fromName, DEFAULT_SEED);
+    }
+
+    public static int calcHash(String fromName, int seed) {
+        int hash = seed;
+        for (byte b : getBytes(fromName)) {
             hash ^= b;
             hash *= 0x1000193;
         }
-        return (int) hash;
+        return hash;
+    }
+
+    // the seed making every field name hash differently, null if none found
+    static Integer findPerfectSeed(List<String> fromNames) {
+        int seed = DEFAULT_SEED;
+        for (int i = 0; i < MAX_SEED_TRIALS; i++) {
+            HashSet<Integer> knownHashes = new HashSet<Integer>();
+            for (String fromName : fromNames) {
+                if (!knownHashes.add(calcHash(fromName, seed))) {
+                    break;
+                }
+            }
+            if (knownHashes.size() == fromNames.size()) {
+                return seed;
+            }
+            seed += 0x9e3779b9;
+        }
+        return null;
+    }
+
+    static String genFieldMatch(String fromName) {
+        byte[] fromNameBytes = getBytes(fromName);
+        return "field.len()==" + fromNameBytes.length + " && " + genBytesMatch(fromNameBytes);
+    }
+
+    // compare 8 bytes, then 4 bytes at a time, the length is checked by caller
+    static String genBytesMatch(byte[] bytes) {
+        return genBytesMatch(bytes, false);
+    }
+
+    // words of a field name of the length, read once for all the names of that length to compare with
+    static String genWordLocals(int length) {
+        StringBuilder locals = new StringBuilder();
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            locals.append(String.format("long word%d = field.longAt(%d);\n", i, i));
+        }
+        if (i + 4 <= length) {
+            locals.append(String.format("int word%d = field.intAt(%d);\n", i, i));
+        }
+        return locals.toString();
     }
 
-    private static void appendBindingSet(StringBuilder lines, ClassDescriptor desc, Binding binding) {
+    // with hoisted, the words are the locals declared by genWordLocals
+    static String genBytesMatch(byte[] bytes, boolean hoisted) {
+        if (bytes.length == 0) {
+            return "true";
+        }
+        StringBuilder match = new StringBuilder();
+        int i = 0;
+        for (; i + 8 <= bytes.length; i += 8) {
+            long word = 0;
+            for (int j = 7; j >= 0; j--) {
+                word = (word << 8) | (bytes[i + j] & 0xFFL);
+            }
+            appendAnd(match, String.format(hoisted ? "word%d==%dL" : "field.longAt(%d)==%dL", i, word));
+        }
+        if (i + 4 <= bytes.length) {
+            int word = 0;
+            for (int j = 3; j >= 0; j--) {
+                word = (word << 8) | (bytes[i + j] & 0xFF);
+            }
+            appendAnd(match, String.format(hoisted ? "word%d==%d" : "field.intAt(%d)==%d", i, word));
+            i += 4;
+        }
+        for (; i < bytes.length; i++) {
+            appendAnd(match, String.format("field.at(%d)==%d", i, bytes[i]));
+        }
+        return match.toString();
+    }
+
+    private static void appendAnd(StringBuilder match, String condition) {
+        if (match.length() > 0) {
+            match.append(" && ");
+        }
+        match.append(condition);
+    }
+
+    static byte[] getBytes(String str) {
+        try {
+            return str.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    private static void appendBindingSet(StringBuilder lines, ClassDescriptor desc, List<Binding> allBindings,
+                                         Binding binding) {
+        append(lines, genIfNotMasked(binding, allBindings));
+        if (binding.field != null && binding.valueCanReuse && desc.ctor.parameters.isEmpty()) {
+            // existing object will be returned, decode into the existing value of the field
+            append(lines, String.format("com.jsoniter.CodegenAccess.setExistingObject(iter, existingObj == null ? null : ((%s)existingObj).%s);",
+                    desc.clazz.getCanonicalName(), binding.field.getName()));
+        }
         append(lines, String.format("_%s_ = %s;", binding.name, CodegenImplNative.genField(binding)));
+        append(lines, "}");
+    }
+
+    // no ctor or wrapper params, so obj exists while the fields are bound
+    private static void appendBindingSetToObj(StringBuilder lines, List<Binding> allBindings, Binding binding) {
+        append(lines, genIfNotMasked(binding, allBindings));
+        if (binding.field != null) {
+            if (binding.valueCanReuse) {
+                // obj is the existing object or a new one, decode into the current value of the field
+                append(lines, String.format("com.jsoniter.CodegenAccess.setExistingObject(iter, obj.%s);",
+                        binding.field.getName()));
+            }
+            append(lines, String.format("obj.%s = %s;", binding.field.getName(), CodegenImplNative.genField(binding)));
+        } else {
+            append(lines, String.format("obj.%s(%s);", binding.method.getName(), CodegenImplNative.genField(binding)));
+        }
+        append(lines, "}");
+    }
+
+    // the field mask of the read resolved to one bit per binding, the bits are tested by genIfNotMasked
+    static String genMasked(Class clazz, List<Binding> allBindings) {
+        return String.format("long[] masked = com.jsoniter.CodegenAccess.masked(iter, %s);",
+                Codegen.linkMaskedProperties(clazz, allBindings));
+    }
+
+    // the field mask of the read might leave the property out, then its value is skipped
+    static String genIfNotMasked(Binding binding, List<Binding> allBindings) {
+        return String.format("if (!com.jsoniter.CodegenAccess.skipMasked(iter, masked, %d)) {",
+                maskIndex(binding, allBindings));
+    }
+
+    private static String genIfNotMaskedSet(Binding binding, List<Binding> allBindings, String set) {
+        return String.format("if (!com.jsoniter.CodegenAccess.isMasked(masked, %d)) { %s }",
+                maskIndex(binding, allBindings), set);
+    }
+
+    private static int maskIndex(Binding binding, List<Binding> allBindings) {
+        for (int i = 0; i < allBindings.size(); i++) {
+            if (allBindings.get(i) == binding) {
+                return i;
+            }
+        }
+        throw new JsonException("binding not found: " + binding.name);
     }
 
     static void appendWrappers(List<WrapperDescriptor> wrappers, StringBuilder lines) {
@@ -139,8 +342,8 @@ public class CodegenImplObjectHash {
             code.append("(existingObj == null ? ");
         }
         if (ctor.objectFactory != null) {
-            code.append(String.format("(%s)com.jsoniter.spi.JsoniterSpi.create(%s.class)",
-                    clazz.getCanonicalName(), clazz.getCanonicalName()));
+            code.append(String.format("(%s)%s.create(%s.class)",
+                    clazz.getCanonicalName(), Codegen.linkObjectFactory(clazz), clazz.getCanonicalName()));
         } else {
             if (ctor.staticMethodName == null) {
                 code.append(String.format("new %s", clazz.getCanonicalName()));
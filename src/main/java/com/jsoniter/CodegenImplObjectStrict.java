@@ -20,38 +20,56 @@ class CodegenImplObjectStrict {
         put("long", "0");
     }};
 
-    public static String genObjectUsingStrict(Class clazz, ClassDescriptor desc) {
+    // more fields than this, bind them in helper methods to keep decode_ small enough to be jit compiled
+    private static final int SPLIT_THRESHOLD = 32;
+    private static final int FIELDS_PER_METHOD = 16;
+
+    public static String genObjectUsingStrict(Class clazz, ClassDescriptor desc, List<String> methods) {
+        return genObjectUsingStrict(clazz, desc, false, null, methods);
+    }
+
+    public static String genObjectUsingStrict(Class clazz, ClassDescriptor desc, boolean expectDeclaredOrder,
+                                              ProfiledDecoder profile, List<String> methods) {
         List<Binding> allBindings = desc.allDecoderBindings();
         int lastRequiredIdx = assignMaskForRequiredProperties(allBindings);
         boolean hasRequiredBinding = lastRequiredIdx > 0;
-        long expectedTracker = Long.MAX_VALUE >> (63 - lastRequiredIdx);
-        Map<Integer, Object> trieTree = buildTriTree(allBindings);
+        Map<Integer, Map<String, Binding>> fieldsByLength = groupByLength(allBindings);
+        boolean split = shouldSplit(desc);
+        // helper methods update the tracker, more than 63 required fields need more than one long
+        boolean trackerArray = hasRequiredBinding && (split || lastRequiredIdx > 63);
         StringBuilder lines = new StringBuilder();
         /*
          * only strict mode binding support missing/extra properties tracking
          * 1. if null, return null
          * 2. if empty, return empty
-         * 3. bind first field
-         * 4. while (nextToken() == ',') { bind more fields }
-         * 5. handle missing/extra properties
-         * 6. create obj with args (if ctor binding)
-         * 7. assign fields to obj (if ctor binding)
-         * 8. apply multi param wrappers
+         * 3. bind fields in declared order, until first unexpected field (if expect declared order)
+         * 4. bind first field
+         * 5. while (nextToken() == ',') { bind more fields }
+         * 6. handle missing/extra properties
+         * 7. create obj with args (if ctor binding)
+         * 8. assign fields to obj (if ctor binding)
+         * 9. apply multi param wrappers
          */
         // === if null, return null
         append(lines, "java.lang.Object existingObj = com.jsoniter.CodegenAccess.resetExistingObject(iter);");
         append(lines, "if (iter.readNull()) { return null; }");
+        append(lines, CodegenImplObjectHash.genMasked(clazz, allBindings));
         // === if input is empty obj, return empty obj
-        if (hasRequiredBinding) {
+        if (trackerArray) {
+            append(lines, String.format("long[] tracker = new long[%d];", (lastRequiredIdx + 63) / 64));
+        } else if (hasRequiredBinding) {
             append(lines, "long tracker = 0;");
         }
         if (desc.ctor.parameters.isEmpty()) {
             append(lines, "{{clazz}} obj = {{newInst}};");
             append(lines, "if (!com.jsoniter.CodegenAccess.readObjectStart(iter)) {");
             if (hasRequiredBinding) {
-                appendMissingRequiredProperties(lines, desc);
+                appendMissingRequiredProperties(lines, desc, trackerArray, methods);
+            }
+            if (!hasRequiredBinding || desc.onMissingProperties != null) {
+                // otherwise missing properties are thrown
+                append(lines, "return obj;");
             }
-            append(lines, "return obj;");
             append(lines, "}");
             // because obj can be created without binding
             // so that fields and setters can be bind to obj directly without temp var
@@ -61,7 +79,7 @@ class CodegenImplObjectStrict {
             }
             append(lines, "if (!com.jsoniter.CodegenAccess.readObjectStart(iter)) {");
             if (hasRequiredBinding) {
-                appendMissingRequiredProperties(lines, desc);
+                appendMissingRequiredProperties(lines, desc, trackerArray, methods);
             } else {
                 append(lines, "return {{newInst}};");
             }
@@ -83,39 +101,77 @@ class CodegenImplObjectStrict {
             append(lines, "java.util.Map extra = null;");
         }
         append(lines, "com.jsoniter.Slice field = com.jsoniter.CodegenAccess.readObjectFieldAsSlice(iter);");
-        append(lines, "boolean once = true;");
-        append(lines, "while (once) {");
-        append(lines, "once = false;");
-        String rendered = renderTriTree(trieTree);
-        if (desc.ctor.parameters.isEmpty()) {
+        String helperArgs = hasRequiredBinding ? "iter, field, obj, tracker, masked" : "iter, field, obj, masked";
+        String rendered;
+        String renderedInOrder = null;
+        if (split) {
+            String helperParams = "com.jsoniter.JsonIterator iter, com.jsoniter.Slice field, {{clazz}} obj";
+            if (hasRequiredBinding) {
+                helperParams += ", long[] tracker";
+            }
+            helperParams += ", long[] masked";
+            List<String> helpers = new ArrayList<String>();
+            rendered = genDispatchHelpers(fieldsByLength, allBindings, profile, helperParams, helperArgs, helpers);
+            if (expectDeclaredOrder) {
+                renderedInOrder = genInOrderHelpers(allBindings, profile, helperParams, helperArgs, helpers);
+            }
+            for (String helper : helpers) {
+                for (Binding binding : allBindings) {
+                    helper = updateBindingSetOp(helper, binding);
+                }
+                methods.add(helper
+                        .replace("{{clazz}}", clazz.getCanonicalName()));
+            }
+        } else {
+            rendered = "switch (field.len()) {\n" + renderFieldDispatch(fieldsByLength, allBindings, profile, trackerArray, "continue;") + "}\n";
+            if (expectDeclaredOrder) {
+                renderedInOrder = renderInOrder(allBindings, allBindings, profile, trackerArray, false);
+            }
+        }
+        if (desc.ctor.parameters.isEmpty() && !split) {
             // if not field or setter, the value will set to temp variable
             for (Binding field : desc.fields) {
                 rendered = updateBindingSetOp(rendered, field);
+                if (renderedInOrder != null) {
+                    renderedInOrder = updateBindingSetOp(renderedInOrder, field);
+                }
             }
             for (Binding setter : desc.setters) {
                 rendered = updateBindingSetOp(rendered, setter);
+                if (renderedInOrder != null) {
+                    renderedInOrder = updateBindingSetOp(renderedInOrder, setter);
+                }
             }
         }
+        if (renderedInOrder != null) {
+            // 0: field as expected, 1: field to be dispatched, 2: end of object
+            append(lines, "int inOrder = 0;");
+            append(lines, renderedInOrder);
+            append(lines, "if (inOrder == 0) { inOrder = 1; }");
+            append(lines, "if (inOrder == 1) {");
+        }
+        append(lines, "boolean once = true;");
+        append(lines, "while (once) {");
+        append(lines, "once = false;");
         if (hasAnythingToBindFrom(allBindings)) {
-            append(lines, "switch (field.len()) {");
             append(lines, rendered);
-            append(lines, "}"); // end of switch
         }
-        appendOnUnknownField(lines, desc);
+        appendOnUnknownField(lines, desc, profile);
         append(lines, "}"); // end of while
         // === bind all fields
         append(lines, "while (com.jsoniter.CodegenAccess.nextToken(iter) == ',') {");
         append(lines, "field = com.jsoniter.CodegenAccess.readObjectFieldAsSlice(iter);");
         if (hasAnythingToBindFrom(allBindings)) {
-            append(lines, "switch (field.len()) {");
             append(lines, rendered);
-            append(lines, "}"); // end of switch
         }
-        appendOnUnknownField(lines, desc);
+        appendOnUnknownField(lines, desc, profile);
         append(lines, "}"); // end of while
+        if (renderedInOrder != null) {
+            append(lines, "}"); // end of if field to be dispatched
+        }
         if (hasRequiredBinding) {
-            append(lines, "if (tracker != " + expectedTracker + "L) {");
-            appendMissingRequiredProperties(lines, desc);
+            append(lines, "if (" + genTrackerIncomplete(lastRequiredIdx, trackerArray) + ") {");
+            appendMissingRequiredProperties(lines, desc, trackerArray, methods);
             append(lines, "}");
         }
         if (desc.onExtraProperties != null) {
@@ -131,6 +187,9 @@ class CodegenImplObjectStrict {
             }
         }
         appendWrappers(desc.wrappers, lines);
+        if (isProfiling(profile)) {
+            append(lines, genProfile(profile) + ".decoded();");
+        }
         append(lines, "return obj;");
         return lines.toString()
                 .replace("{{clazz}}", clazz.getCanonicalName())
@@ -159,21 +218,72 @@ class CodegenImplObjectStrict {
         return false;
     }
 
+    static boolean shouldSplit(ClassDescriptor desc) {
+        return canSplit(desc) && countFromNames(desc.allDecoderBindings()) > SPLIT_THRESHOLD;
+    }
+
+    private static boolean canSplit(ClassDescriptor desc) {
+        // helper methods can only bind to obj, not to local variables of decode_
+        if (!desc.ctor.parameters.isEmpty()) {
+            return false;
+        }
+        for (WrapperDescriptor wrapper : desc.wrappers) {
+            if (!wrapper.parameters.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int countFromNames(List<Binding> allBindings) {
+        int count = 0;
+        for (Binding binding : allBindings) {
+            count += binding.fromNames.length;
+        }
+        return count;
+    }
+
     private static int assignMaskForRequiredProperties(List<Binding> allBindings) {
         int requiredIdx = 0;
         for (Binding binding : allBindings) {
             if (binding.asMissingWhenNotPresent) {
-                // one bit represent one field
-                binding.mask = 1L << requiredIdx;
+                // one bit represent one field, idx / 64 is the word of tracker array
+                binding.idx = requiredIdx;
+                binding.mask = 1L << (requiredIdx & 63);
                 requiredIdx++;
             }
         }
-        if (requiredIdx > 63) {
-            throw new JsonException("too many required properties to track");
-        }
         return requiredIdx;
     }
 
+    private static String genTrackerSet(Binding binding, boolean trackerArray) {
+        if (trackerArray) {
+            int word = binding.idx >> 6;
+            return String.format("tracker[%d] = tracker[%d] | %dL;", word, word, binding.mask);
+        }
+        return "tracker = tracker | " + binding.mask + "L;";
+    }
+
+    private static String genTracker(Binding binding, boolean trackerArray) {
+        return trackerArray ? "tracker[" + (binding.idx >> 6) + "]" : "tracker";
+    }
+
+    private static String genTrackerIncomplete(int requiredCount, boolean trackerArray) {
+        if (!trackerArray) {
+            return "tracker != " + (Long.MAX_VALUE >> (63 - requiredCount)) + "L";
+        }
+        StringBuilder cond = new StringBuilder();
+        for (int word = 0; word * 64 < requiredCount; word++) {
+            int bits = Math.min(64, requiredCount - word * 64);
+            long expected = bits == 64 ? -1L : (1L << bits) - 1;
+            if (word > 0) {
+                cond.append(" || ");
+            }
+            cond.append(String.format("tracker[%d] != %dL", word, expected));
+        }
+        return cond.toString();
+    }
+
     private static String updateBindingSetOp(String rendered, Binding binding) {
         while (true) {
             String marker = "_" + binding.name + "_";
@@ -209,14 +319,27 @@ class CodegenImplObjectStrict {
         }
     }
 
-    private static void appendMissingRequiredProperties(StringBuilder lines, ClassDescriptor desc) {
-        append(lines, "java.util.List missingFields = new java.util.ArrayList();");
+    private static void appendMissingRequiredProperties(StringBuilder lines, ClassDescriptor desc,
+                                                        boolean trackerArray, List<String> methods) {
+        StringBuilder collect = new StringBuilder();
+        append(collect, "java.util.List missingFields = new java.util.ArrayList();");
         for (Binding binding : desc.allDecoderBindings()) {
             if (binding.asMissingWhenNotPresent) {
                 long mask = binding.mask;
-                append(lines, String.format("com.jsoniter.CodegenAccess.addMissingField(missingFields, tracker, %sL, \"%s\");",
-                        mask, binding.name));
+                append(collect, String.format("com.jsoniter.CodegenAccess.addMissingField(missingFields, %s, %sL, \"%s\");",
+                        genTracker(binding, trackerArray), mask, binding.name));
+            }
+        }
+        if (trackerArray) {
+            // one line per required field, keep them out of decode_
+            String helper = "private static java.util.List missingFields_(long[] tracker) {\n"
+                    + collect + "return missingFields;\n}\n";
+            if (!methods.contains(helper)) {
+                methods.add(helper);
             }
+            append(lines, "java.util.List missingFields = missingFields_(tracker);");
+        } else {
+            lines.append(collect);
         }
         if (desc.onMissingProperties == null || !desc.ctor.parameters.isEmpty()) {
             append(lines, "throw new com.jsoniter.spi.JsonException(\"missing required properties: \" + missingFields);");
@@ -229,7 +352,10 @@ class CodegenImplObjectStrict {
         }
     }
 
-    private static void appendOnUnknownField(StringBuilder lines, ClassDescriptor desc) {
+    private static void appendOnUnknownField(StringBuilder lines, ClassDescriptor desc, ProfiledDecoder profile) {
+        if (isProfiling(profile)) {
+            append(lines, genProfile(profile) + ".unknown();");
+        }
         if (desc.asExtraForUnknownProperties) {
             if (desc.onExtraProperties == null) {
                 append(lines, "throw new com.jsoniter.spi.JsonException('extra property: ' + field.toString());".replace('\'', '"'));
@@ -242,90 +368,214 @@ class CodegenImplObjectStrict {
         }
     }
 
-    private static Map<Integer, Object> buildTriTree(List<Binding> allBindings) {
-        Map<Integer, Object> trieTree = new HashMap<Integer, Object>();
+    private static Map<Integer, Map<String, Binding>> groupByLength(List<Binding> allBindings) {
+        Map<Integer, Map<String, Binding>> fieldsByLength = new TreeMap<Integer, Map<String, Binding>>();
         for (Binding field : allBindings) {
             for (String fromName : field.fromNames) {
-                byte[] fromNameBytes = fromName.getBytes();
-                Map<Byte, Object> current = (Map<Byte, Object>) trieTree.get(fromNameBytes.length);
-                if (current == null) {
-                    current = new HashMap<Byte, Object>();
-                    trieTree.put(fromNameBytes.length, current);
+                int len = CodegenImplObjectHash.getBytes(fromName).length;
+                Map<String, Binding> fields = fieldsByLength.get(len);
+                if (fields == null) {
+                    fields = new LinkedHashMap<String, Binding>();
+                    fieldsByLength.put(len, fields);
                 }
-                for (int i = 0; i < fromNameBytes.length - 1; i++) {
-                    byte b = fromNameBytes[i];
-                    Map<Byte, Object> next = (Map<Byte, Object>) current.get(b);
-                    if (next == null) {
-                        next = new HashMap<Byte, Object>();
-                        current.put(b, next);
+                fields.put(fromName, field);
+            }
+        }
+        return fieldsByLength;
+    }
+
+    private static List<Binding> expectedInOrder(List<Binding> allBindings, ProfiledDecoder profile) {
+        List<Binding> expected = new ArrayList<Binding>();
+        for (Binding field : allBindings) {
+            if (field.fromNames.length == 0 || field.asExtraWhenPresent || field.shouldSkip) {
+                // not expected to be present
+                continue;
+            }
+            if (isRegenerating(profile) && profile.hitsOf(field.fromNames[0]) == 0) {
+                // never seen, leave it to the field dispatch
+                continue;
+            }
+            expected.add(field);
+        }
+        return expected;
+    }
+
+    private static String renderInOrder(List<Binding> bindings, List<Binding> allBindings, ProfiledDecoder profile,
+                                        boolean trackerArray, boolean inHelper) {
+        StringBuilder lines = new StringBuilder();
+        for (Binding field : expectedInOrder(bindings, profile)) {
+            String fromName = field.fromNames[0];
+            byte[] fromNameBytes = CodegenImplObjectHash.getBytes(fromName);
+            append(lines, "if (inOrder == 0) {");
+            append(lines, String.format("if (field.len()==%d && %s) {",
+                    fromNameBytes.length, CodegenImplObjectHash.genBytesMatch(fromNameBytes)));
+            append(lines, CodegenImplObjectHash.genIfNotMasked(field, allBindings));
+            append(lines, String.format("_%s_ = %s;", field.name, CodegenImplNative.genField(field)));
+            append(lines, "}");
+            if (field.asMissingWhenNotPresent) {
+                append(lines, genTrackerSet(field, trackerArray));
+            }
+            if (isProfiling(profile)) {
+                append(lines, String.format("%s.hit(%d);", genProfile(profile), profile.watchField(fromName)));
+            }
+            append(lines, "if (com.jsoniter.CodegenAccess.nextToken(iter) == ',') {");
+            if (inHelper) {
+                // the caller holds the field, read the next field name into it
+                append(lines, "com.jsoniter.CodegenAccess.readObjectFieldAsSlice(iter, field);");
+            } else {
+                append(lines, "field = com.jsoniter.CodegenAccess.readObjectFieldAsSlice(iter);");
+            }
+            append(lines, "} else { inOrder = 2; }");
+            append(lines, "} else { inOrder = 1; }");
+            append(lines, "}");
+        }
+        return lines.toString();
+    }
+
+    private static String genInOrderHelpers(List<Binding> allBindings, ProfiledDecoder profile,
+                                            String helperParams, String helperArgs, List<String> helpers) {
+        List<Binding> expected = expectedInOrder(allBindings, profile);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < expected.size(); i += FIELDS_PER_METHOD) {
+            String helperName = "inOrder" + helpers.size() + "_";
+            List<Binding> chunk = expected.subList(i, Math.min(expected.size(), i + FIELDS_PER_METHOD));
+            helpers.add("private static int " + helperName + "(" + helperParams + ") throws java.io.IOException {\n"
+                    + "int inOrder = 0;\n"
+                    + renderInOrder(chunk, allBindings, profile, true, true)
+                    + "return inOrder;\n}\n");
+            if (i == 0) {
+                append(lines, String.format("inOrder = %s(%s);", helperName, helperArgs));
+            } else {
+                append(lines, String.format("if (inOrder == 0) { inOrder = %s(%s); }", helperName, helperArgs));
+            }
+        }
+        return lines.toString();
+    }
+
+    private static String genDispatchHelpers(Map<Integer, Map<String, Binding>> fieldsByLength, List<Binding> allBindings,
+                                             ProfiledDecoder profile, String helperParams, String helperArgs, List<String> helpers) {
+        // fields of the same length might be spread over several helpers
+        Map<Integer, List<String>> helpersByLength = new TreeMap<Integer, List<String>>();
+        List<Map.Entry<String, Binding>> all = new ArrayList<Map.Entry<String, Binding>>();
+        List<Integer> lengths = new ArrayList<Integer>();
+        for (Map.Entry<Integer, Map<String, Binding>> entry : fieldsByLength.entrySet()) {
+            for (Map.Entry<String, Binding> fieldEntry : sortByHits(entry.getValue(), profile)) {
+                all.add(fieldEntry);
+                lengths.add(entry.getKey());
+            }
+        }
+        for (int i = 0; i < all.size(); i += FIELDS_PER_METHOD) {
+            String helperName = "fields" + helpers.size() + "_";
+            Map<Integer, Map<String, Binding>> chunk = new TreeMap<Integer, Map<String, Binding>>();
+            for (int j = i; j < Math.min(all.size(), i + FIELDS_PER_METHOD); j++) {
+                Integer len = lengths.get(j);
+                Map<String, Binding> fields = chunk.get(len);
+                if (fields == null) {
+                    fields = new LinkedHashMap<String, Binding>();
+                    chunk.put(len, fields);
+                    List<String> helpersOfLength = helpersByLength.get(len);
+                    if (helpersOfLength == null) {
+                        helpersOfLength = new ArrayList<String>();
+                        helpersByLength.put(len, helpersOfLength);
                     }
-                    current = next;
+                    helpersOfLength.add(helperName + "(" + helperArgs + ")");
+                }
+                fields.put(all.get(j).getKey(), all.get(j).getValue());
+            }
+            helpers.add("private static boolean " + helperName + "(" + helperParams + ") throws java.io.IOException {\n"
+                    + "switch (field.len()) {\n"
+                    + renderFieldDispatch(chunk, allBindings, profile, true, "return true;")
+                    + "}\nreturn false;\n}\n");
+        }
+        StringBuilder dispatch = new StringBuilder();
+        append(dispatch, "private static boolean dispatch_(" + helperParams + ") throws java.io.IOException {");
+        append(dispatch, "switch (field.len()) {");
+        for (Map.Entry<Integer, List<String>> entry : helpersByLength.entrySet()) {
+            StringBuilder calls = new StringBuilder();
+            for (String call : entry.getValue()) {
+                if (calls.length() > 0) {
+                    calls.append(" || ");
                 }
-                current.put(fromNameBytes[fromNameBytes.length - 1], field);
+                calls.append(call);
             }
+            append(dispatch, "case " + entry.getKey() + ": return " + calls + ";");
         }
-        return trieTree;
+        append(dispatch, "}");
+        append(dispatch, "return false;");
+        append(dispatch, "}");
+        helpers.add(dispatch.toString());
+        return "if (dispatch_(" + helperArgs + ")) { continue; }\n";
     }
 
-    private static String renderTriTree(Map<Integer, Object> trieTree) {
-        StringBuilder switchBody = new StringBuilder();
-        for (Map.Entry<Integer, Object> entry : trieTree.entrySet()) {
-            Integer len = entry.getKey();
-            append(switchBody, "case " + len + ": ");
-            Map<Byte, Object> current = (Map<Byte, Object>) entry.getValue();
-            addFieldDispatch(switchBody, len, 0, current, new ArrayList<Byte>());
-            append(switchBody, "break;");
-        }
-        return switchBody.toString();
+    private static List<Map.Entry<String, Binding>> sortByHits(Map<String, Binding> fieldsOfLength,
+                                                               final ProfiledDecoder profile) {
+        List<Map.Entry<String, Binding>> fields = new ArrayList<Map.Entry<String, Binding>>(fieldsOfLength.entrySet());
+        if (isRegenerating(profile)) {
+            // hot fields first, never seen fields last
+            Collections.sort(fields, new Comparator<Map.Entry<String, Binding>>() {
+                @Override
+                public int compare(Map.Entry<String, Binding> o1, Map.Entry<String, Binding> o2) {
+                    long x = profile.hitsOf(o1.getKey());
+                    long y = profile.hitsOf(o2.getKey());
+                    return (x > y) ? -1 : ((x == y) ? 0 : 1);
+                }
+            });
+        }
+        return fields;
     }
 
-    private static void addFieldDispatch(
-            StringBuilder lines, int len, int i, Map<Byte, Object> current, List<Byte> bytesToCompare) {
-        for (Map.Entry<Byte, Object> entry : current.entrySet()) {
-            Byte b = entry.getKey();
-            if (i == len - 1) {
-                append(lines, "if (");
-                for (int j = 0; j < bytesToCompare.size(); j++) {
-                    Byte a = bytesToCompare.get(j);
-                    append(lines, String.format("field.at(%d)==%s && ", i - bytesToCompare.size() + j, a));
+    private static String renderFieldDispatch(Map<Integer, Map<String, Binding>> fieldsByLength, List<Binding> allBindings,
+                                              ProfiledDecoder profile, boolean trackerArray, String onMatched) {
+        StringBuilder lines = new StringBuilder();
+        for (Map.Entry<Integer, Map<String, Binding>> entry : fieldsByLength.entrySet()) {
+            append(lines, "case " + entry.getKey() + ": {");
+            // one candidate compares lazily, several share the words read once
+            boolean hoisted = entry.getValue().size() > 1;
+            if (hoisted) {
+                lines.append(CodegenImplObjectHash.genWordLocals(entry.getKey()));
+            }
+            for (Map.Entry<String, Binding> fieldEntry : sortByHits(entry.getValue(), profile)) {
+                byte[] fromNameBytes = CodegenImplObjectHash.getBytes(fieldEntry.getKey());
+                append(lines, "if (" + CodegenImplObjectHash.genBytesMatch(fromNameBytes, hoisted) + ") {");
+                Binding field = fieldEntry.getValue();
+                if (isProfiling(profile)) {
+                    append(lines, String.format("%s.hit(%d);", genProfile(profile), profile.watchField(fieldEntry.getKey())));
                 }
-                append(lines, String.format("field.at(%d)==%s", i, b));
-                append(lines, ") {");
-                Binding field = (Binding) entry.getValue();
                 if (field.asExtraWhenPresent) {
                     append(lines, String.format(
                             "throw new com.jsoniter.spi.JsonException('extra property: %s');".replace('\'', '"'),
                             field.name));
                 } else if (field.shouldSkip) {
                     append(lines, "iter.skip();");
-                    append(lines, "continue;");
+                    append(lines, onMatched);
                 } else {
+                    append(lines, CodegenImplObjectHash.genIfNotMasked(field, allBindings));
                     append(lines, String.format("_%s_ = %s;", field.name, CodegenImplNative.genField(field)));
+                    append(lines, "}");
                     if (field.asMissingWhenNotPresent) {
-                        append(lines, "tracker = tracker | " + field.mask + "L;");
+                        append(lines, genTrackerSet(field, trackerArray));
                     }
-                    append(lines, "continue;");
+                    append(lines, onMatched);
                 }
                 append(lines, "}");
-                continue;
-            }
-            Map<Byte, Object> next = (Map<Byte, Object>) entry.getValue();
-            if (next.size() == 1) {
-                ArrayList<Byte> nextBytesToCompare = new ArrayList<Byte>(bytesToCompare);
-                nextBytesToCompare.add(b);
-                addFieldDispatch(lines, len, i + 1, next, nextBytesToCompare);
-                continue;
-            }
-            append(lines, "if (");
-            for (int j = 0; j < bytesToCompare.size(); j++) {
-                Byte a = bytesToCompare.get(j);
-                append(lines, String.format("field.at(%d)==%s && ", i - bytesToCompare.size() + j, a));
             }
-            append(lines, String.format("field.at(%d)==%s", i, b));
-            append(lines, ") {");
-            addFieldDispatch(lines, len, i + 1, next, new ArrayList<Byte>());
+            append(lines, "break;");
             append(lines, "}");
         }
+        return lines.toString();
+    }
+
+    // first generation counts, regeneration uses the counts
+    static boolean isProfiling(ProfiledDecoder profile) {
+        return profile != null && !profile.regenerated;
+    }
+
+    static boolean isRegenerating(ProfiledDecoder profile) {
+        return profile != null && profile.regenerated;
+    }
+
+    static String genProfile(ProfiledDecoder profile) {
+        return Codegen.linkProfile(profile);
     }
 
     public static String genObjectUsingSkip(Class clazz, ConstructorDescriptor ctor) {
@@ -0,0 +1,212 @@
+package com.jsoniter;
+
+import java.util.*;
+
+// insertion ordered map of few keys, searched linearly in an array, switching to hashing when it grows
+public class CompactMap extends AbstractMap<String, Object> {
+
+    final static int HASHING_THRESHOLD = 8;
+    // key at 2 * i, value at 2 * i + 1
+    private Object[] keysAndValues;
+    private int size;
+    private LinkedHashMap<String, Object> hashed;
+
+    public CompactMap() {
+        this(4);
+    }
+
+    public CompactMap(int capacity) {
+        keysAndValues = new Object[Math.min(capacity, HASHING_THRESHOLD) * 2];
+    }
+
+    private int indexOf(Object key) {
+        int end = size * 2;
+        for (int i = 0; i < end; i += 2) {
+            Object k = keysAndValues[i];
+            // keys decoded in compact mode are interned
+            if (k == key || (key != null && key.equals(k))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return hashed == null ? size : hashed.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return hashed == null ? indexOf(key) != -1 : hashed.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (hashed != null) {
+            return hashed.get(key);
+        }
+        int i = indexOf(key);
+        return i == -1 ? null : keysAndValues[i + 1];
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (hashed != null) {
+            return hashed.put(key, value);
+        }
+        int i = indexOf(key);
+        if (i != -1) {
+            Object old = keysAndValues[i + 1];
+            keysAndValues[i + 1] = value;
+            return old;
+        }
+        if (size == HASHING_THRESHOLD) {
+            hashed = new LinkedHashMap<String, Object>(HASHING_THRESHOLD * 4);
+            for (int j = 0; j < size * 2; j += 2) {
+                hashed.put((String) keysAndValues[j], keysAndValues[j + 1]);
+            }
+            keysAndValues = null;
+            size = 0;
+            return hashed.put(key, value);
+        }
+        if (size * 2 == keysAndValues.length) {
+            keysAndValues = Arrays.copyOf(keysAndValues, Math.max(4, size * 4));
+        }
+        keysAndValues[size * 2] = key;
+        keysAndValues[size * 2 + 1] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (hashed != null) {
+            return hashed.remove(key);
+        }
+        int i = indexOf(key);
+        if (i == -1) {
+            return null;
+        }
+        Object old = keysAndValues[i + 1];
+        removeAt(i);
+        return old;
+    }
+
+    private void removeAt(int i) {
+        // shift to keep the insertion order
+        System.arraycopy(keysAndValues, i + 2, keysAndValues, i, size * 2 - i - 2);
+        size--;
+        keysAndValues[size * 2] = null;
+        keysAndValues[size * 2 + 1] = null;
+    }
+
+    @Override
+    public void clear() {
+        if (hashed != null) {
+            hashed.clear();
+            return;
+        }
+        Arrays.fill(keysAndValues, 0, size * 2, null);
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (hashed != null) {
+            return hashed.entrySet();
+        }
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, Object>> {
+
+        private int next;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < size * 2;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next += 2;
+            return new ArrayEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last == -1) {
+                throw new IllegalStateException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+        }
+    }
+
+    private class ArrayEntry implements Entry<String, Object> {
+
+        private final int index;
+
+        private ArrayEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return (String) keysAndValues[index];
+        }
+
+        @Override
+        public Object getValue() {
+            return keysAndValues[index + 1];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = keysAndValues[index + 1];
+            keysAndValues[index + 1] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry that = (Entry) o;
+            Object key = getKey();
+            Object value = getValue();
+            return (key == null ? that.getKey() == null : key.equals(that.getKey()))
+                    && (value == null ? that.getValue() == null : value.equals(that.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object key = getKey();
+            Object value = getValue();
+            return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -9,10 +9,20 @@ public enum DecodingMode {
      * dynamically codegen, generate object decoder which compares fields strictly
      */
     DYNAMIC_MODE_AND_MATCH_FIELD_STRICTLY,
+    /**
+     * dynamically codegen, expect fields in declared order,
+     * compare fields strictly for the rest of the object after first unexpected field
+     */
+    DYNAMIC_MODE_AND_MATCH_FIELD_IN_ORDER,
     /**
      * statically codegen
      */
     STATIC_MODE,
+    /**
+     * decode using reflection at first, dynamically codegen in background once a type is decoded often,
+     * generated object decoder matches field using hash
+     */
+    TIERED_MODE,
     /**
      * decoding only using reflection, do not need code generation
      */
@@ -1,32 +1,41 @@
 package com.jsoniter;
 
 import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.GeneratedClassLoader;
 import javassist.*;
 
-class DynamicCodegen {
-
-    static ClassPool pool = ClassPool.getDefault();
+import java.lang.reflect.Type;
+import java.util.List;
 
-    static {
-        pool.insertClassPath(new ClassClassPath(Decoder.class));
-    }
+class DynamicCodegen {
 
-    public static Decoder gen(String cacheKey, String source) throws Exception {
-        Decoder decoder;
-        CtClass ctClass = pool.makeClass(cacheKey);
-        ctClass.setInterfaces(new CtClass[]{pool.get(Decoder.class.getName())});
-        CtMethod staticMethod = CtNewMethod.make(source, ctClass);
-        ctClass.addMethod(staticMethod);
-        CtMethod interfaceMethod = CtNewMethod.make("" +
-                "public Object decode(com.jsoniter.JsonIterator iter) {" +
-                "return decode_(iter);" +
-                "}", ctClass);
-        ctClass.addMethod(interfaceMethod);
-        decoder = (Decoder) ctClass.toClass().newInstance();
-        return decoder;
+    public static Decoder gen(Class clazz, Type[] typeArgs, String cacheKey, List<String> fields, List<String> methods) throws Exception {
+        GeneratedClassLoader loader = GeneratedClassLoader.of(clazz, typeArgs);
+        ClassPool pool = loader.pool;
+        // classes are generated in parallel, the pool compiles one at a time
+        synchronized (pool) {
+            CtClass ctClass = pool.makeClass(cacheKey);
+            ctClass.setInterfaces(new CtClass[]{pool.get(Decoder.class.getName())});
+            for (String field : fields) {
+                ctClass.addField(CtField.make(field, ctClass));
+            }
+            for (String method : methods) {
+                CtMethod staticMethod = CtNewMethod.make(method, ctClass);
+                ctClass.addMethod(staticMethod);
+            }
+            CtMethod interfaceMethod = CtNewMethod.make("" +
+                    "public Object decode(com.jsoniter.JsonIterator iter) {" +
+                    "return decode_(iter);" +
+                    "}", ctClass);
+            ctClass.addMethod(interfaceMethod);
+            return (Decoder) loader.define(ctClass).newInstance();
+        }
     }
 
     public static void enableStreamingSupport() throws Exception {
+        // replaces IterImpl, has to be defined by the loader of jsoniter
+        ClassPool pool = ClassPool.getDefault();
+        pool.insertClassPath(new ClassClassPath(Decoder.class));
         CtClass ctClass = pool.makeClass("com.jsoniter.IterImpl");
         ctClass.setSuperclass(pool.get(IterImplForStreaming.class.getName()));
         ctClass.toClass();
@@ -0,0 +1,78 @@
+package com.jsoniter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * a view of the classes to bind, passed to JsonIterator.read.
+ * properties left out are skipped without decoding, classes not included bind all their properties
+ */
+public class FieldMask {
+
+    // by class name, which is what generated decoders know
+    private final Map<String, Set<String>> included = new HashMap<String, Set<String>>();
+    // resolved once per class, a decoder then tests one bit per property
+    private final Map<Properties, long[]> resolved = new ConcurrentHashMap<Properties, long[]>();
+    private static final long[] BIND_ALL = new long[0];
+
+    public FieldMask include(Class clazz, String... properties) {
+        Set<String> set = included.get(clazz.getName());
+        if (set == null) {
+            set = new HashSet<String>();
+            included.put(clazz.getName(), set);
+        }
+        set.addAll(Arrays.asList(properties));
+        resolved.clear();
+        return this;
+    }
+
+    // bit i is set if the i-th property is left out, null if the class binds all its properties
+    long[] resolve(Properties properties) {
+        long[] masked = resolved.get(properties);
+        if (masked == null) {
+            masked = BIND_ALL;
+            Set<String> set = included.get(properties.className);
+            if (set != null) {
+                masked = new long[(properties.names.length + 63) / 64];
+                for (int i = 0; i < properties.names.length; i++) {
+                    if (!set.contains(properties.names[i])) {
+                        masked[i >> 6] |= 1L << i;
+                    }
+                }
+            }
+            resolved.put(properties, masked);
+        }
+        return masked == BIND_ALL ? null : masked;
+    }
+
+    /**
+     * the properties a decoder binds, in the order of the bits of a resolved mask
+     */
+    public static class Properties {
+
+        final String className;
+        final String[] names;
+
+        Properties(String className, String[] names) {
+            this.className = className;
+            this.names = names;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Properties that = (Properties) o;
+            return className.equals(that.className) && Arrays.equals(names, that.names);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * className.hashCode() + Arrays.hashCode(names);
+        }
+    }
+}
@@ -7,13 +7,14 @@ import java.io.IOException;
 
 class IterImpl {
 
-    public static final int readObjectFieldAsHash(JsonIterator iter) throws IOException {
+    // the field name is kept in reusableSlice, so generated code can verify the match
+    public static final int readObjectFieldAsHash(JsonIterator iter, int seed) throws IOException {
         if (readByte(iter) != '"') {
             if (nextToken(iter) != '"') {
                 throw iter.reportError("readObjectFieldAsHash", "expect \"");
             }
         }
-        long hash = 0x811c9dc5;
+        int hash = seed;
         int i = iter.head;
         for (; i < iter.tail; i++) {
             byte c = iter.buf[i];
@@ -23,13 +24,14 @@ class IterImpl {
             hash ^= c;
             hash *= 0x1000193;
         }
+        iter.reusableSlice.reset(iter.buf, iter.head, i);
         iter.head = i + 1;
         if (readByte(iter) != ':') {
             if (nextToken(iter) != ':') {
                 throw iter.reportError("readObjectFieldAsHash", "expect :");
             }
         }
-        return (int) hash;
+        return hash;
     }
 
     public static final Slice readObjectFieldAsSlice(JsonIterator iter) throws IOException {
@@ -41,55 +43,19 @@ class IterImpl {
     }
 
     final static void skipArray(JsonIterator iter) throws IOException {
-        int level = 1;
-        for (int i = iter.head; i < iter.tail; i++) {
-            switch (iter.buf[i]) {
-                case '"': // If inside string, skip it
-                    iter.head = i + 1;
-                    skipString(iter);
-                    i = iter.head - 1; // it will be i++ soon
-                    break;
-                case '[': // If open symbol, increase level
-                    level++;
-                    break;
-                case ']': // If close symbol, increase level
-                    level--;
-
-                    // If we have returned to the original level, we're done
-                    if (level == 0) {
-                        iter.head = i + 1;
-                        return;
-                    }
-                    break;
-            }
+        int end = IterImplSkip.findContainerEnd(iter, iter.head);
+        if (end == -1) {
+            throw iter.reportError("skipArray", "incomplete array");
         }
-        throw iter.reportError("skipArray", "incomplete array");
+        iter.head = end;
     }
 
     final static void skipObject(JsonIterator iter) throws IOException {
-        int level = 1;
-        for (int i = iter.head; i < iter.tail; i++) {
-            switch (iter.buf[i]) {
-                case '"': // If inside string, skip it
-                    iter.head = i + 1;
-                    skipString(iter);
-                    i = iter.head - 1; // it will be i++ soon
-                    break;
-                case '{': // If open symbol, increase level
-                    level++;
-                    break;
-                case '}': // If close symbol, increase level
-                    level--;
-
-                    // If we have returned to the original level, we're done
-                    if (level == 0) {
-                        iter.head = i + 1;
-                        return;
-                    }
-                    break;
-            }
+        int end = IterImplSkip.findContainerEnd(iter, iter.head);
+        if (end == -1) {
+            throw iter.reportError("skipObject", "incomplete object");
         }
-        throw iter.reportError("skipObject", "incomplete object");
+        iter.head = end;
     }
 
     final static void skipString(JsonIterator iter) throws IOException {
@@ -425,7 +391,8 @@ class IterImpl {
                 c = iter.buf[iter.head++];
                 long decimalPart = readPositiveLong(iter, c);
                 int decimalPlaces = iter.head - start;
-                if (decimalPlaces > 0 && decimalPlaces < IterImplNumber.POW10.length && (iter.head - oldHead) < 10) {
+                if (decimalPlaces > 0 && decimalPlaces < IterImplNumber.POW10.length && (iter.head - oldHead) < 10
+                        && !isExponent(iter)) {
                     value = value * IterImplNumber.POW10[decimalPlaces] + decimalPart;
                     return value / (double) IterImplNumber.POW10[decimalPlaces];
                 } else {
@@ -433,7 +400,7 @@ class IterImpl {
                     return IterImplForStreaming.readDoubleSlowPath(iter);
                 }
             } else {
-                if (iter.head < iter.tail && iter.buf[iter.head] == 'e') {
+                if (isExponent(iter)) {
                     iter.head = oldHead;
                     return IterImplForStreaming.readDoubleSlowPath(iter);
                 } else {
@@ -445,4 +412,8 @@ class IterImpl {
             return IterImplForStreaming.readDoubleSlowPath(iter);
         }
     }
+
+    private static boolean isExponent(JsonIterator iter) {
+        return iter.head < iter.tail && (iter.buf[iter.head] == 'e' || iter.buf[iter.head] == 'E');
+    }
 }
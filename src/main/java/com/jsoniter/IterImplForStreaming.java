@@ -6,33 +6,16 @@ import java.io.IOException;
 
 class IterImplForStreaming {
 
-    public static final int readObjectFieldAsHash(JsonIterator iter) throws IOException {
-        if (nextToken(iter) != '"') {
-            throw iter.reportError("readObjectFieldAsHash", "expect \"");
-        }
-        long hash = 0x811c9dc5;
-        for (; ; ) {
-            byte c = 0;
-            int i = iter.head;
-            for (; i < iter.tail; i++) {
-                c = iter.buf[i];
-                if (c == '"') {
-                    break;
-                }
-                hash ^= c;
-                hash *= 0x1000193;
-            }
-            if (c == '"') {
-                iter.head = i + 1;
-                if (nextToken(iter) != ':') {
-                    throw iter.reportError("readObjectFieldAsHash", "expect :");
-                }
-                return (int) hash;
-            }
-            if (!loadMore(iter)) {
-                throw iter.reportError("readObjectFieldAsHash", "unmatched quote");
-            }
+    // the field name is kept in reusableSlice, so generated code can verify the match
+    public static final int readObjectFieldAsHash(JsonIterator iter, int seed) throws IOException {
+        Slice field = readObjectFieldAsSlice(iter);
+        int hash = seed;
+        byte[] data = field.data();
+        for (int i = field.head(); i < field.tail(); i++) {
+            hash ^= data[i];
+            hash *= 0x1000193;
         }
+        return hash;
     }
 
     public static final Slice readObjectFieldAsSlice(JsonIterator iter) throws IOException {
@@ -541,6 +524,7 @@ class IterImplForStreaming {
                 byte c = iter.buf[i];
                 switch (c) {
                     case '-':
+                    case '+':
                     case '.':
                     case 'e':
                     case 'E':
@@ -81,6 +81,77 @@ class IterImplNumber {
         }
     }
 
+    // Integer or Long for integral literals, Double otherwise
+    public static final Object readNumberAsObject(final JsonIterator iter) throws IOException {
+        int digits = 0;
+        for (int i = iter.head; i < iter.tail; i++) {
+            switch (iter.buf[i]) {
+                case '.':
+                case 'e':
+                case 'E':
+                    return readDouble(iter);
+                case '-':
+                    break;
+                case '0':
+                case '1':
+                case '2':
+                case '3':
+                case '4':
+                case '5':
+                case '6':
+                case '7':
+                case '8':
+                case '9':
+                    digits++;
+                    break;
+                default:
+                    if (digits > 18) {
+                        // might overflow long
+                        return parseIntegral(IterImplForStreaming.readNumber(iter));
+                    }
+                    return valueOf(readLong(iter));
+            }
+        }
+        // the number does not end within the buffer
+        String number = IterImplForStreaming.readNumber(iter);
+        try {
+            if (number.indexOf('.') != -1 || number.indexOf('e') != -1 || number.indexOf('E') != -1) {
+                return Double.valueOf(number);
+            }
+            return parseIntegral(number);
+        } catch (NumberFormatException e) {
+            throw iter.reportError("readNumberAsObject", e.toString());
+        }
+    }
+
+    // Double only if the integer overflows long
+    private static Object parseIntegral(String number) {
+        boolean negative = number.charAt(0) == '-';
+        long value = 0;
+        // accumulated negatively, as Long.MIN_VALUE has no positive counterpart
+        for (int i = negative ? 1 : 0; i < number.length(); i++) {
+            int digit = number.charAt(i) - '0';
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                return Double.valueOf(number);
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                return Double.valueOf(number);
+            }
+            value = -value;
+        }
+        return valueOf(value);
+    }
+
+    private static Object valueOf(long value) {
+        if (value == (int) value) {
+            return Integer.valueOf((int) value);
+        }
+        return Long.valueOf(value);
+    }
+
     public static final int readInt(final JsonIterator iter) throws IOException {
         byte c = IterImpl.nextToken(iter);
         if (c == '-') {
@@ -57,8 +57,13 @@ class IterImplSkip {
     // Tries to find the end of string
     // Support if string contains escaped quote symbols.
     final static int findStringEnd(JsonIterator iter) {
+        return findStringEnd(iter, iter.head);
+    }
+
+    // from is after the opening quote
+    final static int findStringEnd(JsonIterator iter, int from) {
         boolean escaped = false;
-        for (int i = iter.head; i < iter.tail; i++) {
+        for (int i = from; i < iter.tail; i++) {
             byte c = iter.buf[i];
             if (c == '"') {
                 if (!escaped) {
@@ -66,13 +71,13 @@ class IterImplSkip {
                 } else {
                     int j = i - 1;
                     for (; ; ) {
-                        if (j < iter.head || iter.buf[j] != '\\') {
+                        if (j < from || iter.buf[j] != '\\') {
                             // even number of backslashes
                             // either end of buffer, or " found
                             return i + 1;
                         }
                         j--;
-                        if (j < iter.head || iter.buf[j] != '\\') {
+                        if (j < from || iter.buf[j] != '\\') {
                             // odd number of backslashes
                             // it is \" or \\\"
                             break;
@@ -86,4 +91,63 @@ class IterImplSkip {
         }
         return -1;
     }
+
+    // the number of elements after the current one, counted by the commas before the end of the array,
+    // without moving head. -1 if the array does not end within the buffer
+    final static int countRemainingElements(JsonIterator iter) {
+        int commas = 0;
+        for (int i = iter.head; i < iter.tail; i++) {
+            int end;
+            switch (iter.buf[i]) {
+                case '"':
+                    end = findStringEnd(iter, i + 1);
+                    break;
+                case '[':
+                case '{':
+                    end = findContainerEnd(iter, i + 1);
+                    break;
+                case ']':
+                case '}':
+                    return commas;
+                case ',':
+                    commas++;
+                    continue;
+                default:
+                    continue;
+            }
+            if (end == -1) {
+                return -1;
+            }
+            i = end - 1; // it will be i++ soon
+        }
+        return -1;
+    }
+
+    // the position after the bracket closing the array or object from is in, strings skipped.
+    // -1 if it does not end within the buffer
+    final static int findContainerEnd(JsonIterator iter, int from) {
+        int level = 1;
+        for (int i = from; i < iter.tail; i++) {
+            switch (iter.buf[i]) {
+                case '"':
+                    int end = findStringEnd(iter, i + 1);
+                    if (end == -1) {
+                        return -1;
+                    }
+                    i = end - 1; // it will be i++ soon
+                    break;
+                case '[':
+                case '{':
+                    level++;
+                    break;
+                case ']':
+                case '}':
+                    if (--level == 0) {
+                        return i + 1;
+                    }
+                    break;
+            }
+        }
+        return -1;
+    }
 }
@@ -63,6 +63,24 @@ class IterImplString {
         return new String(iter.reusableChars, 0, j);
     }
 
+    // decode into the existing builder if there is one
+    public static final StringBuilder readString(JsonIterator iter, StringBuilder existing) throws IOException {
+        byte c = IterImpl.readByte(iter);
+        if (c != '"') {
+            if (readStringIsNull(iter, c)) {
+                return null;
+            }
+        }
+        int j = parse(iter);
+        if (existing == null) {
+            existing = new StringBuilder(j);
+        } else {
+            existing.setLength(0);
+        }
+        existing.append(iter.reusableChars, 0, j);
+        return existing;
+    }
+
     private static int parse(JsonIterator iter) throws IOException {
         byte c;// try fast path first
         int i = iter.head;
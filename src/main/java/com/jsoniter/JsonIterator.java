@@ -25,10 +25,14 @@ public class JsonIterator implements Closeable {
     int tail;
     int skipStartedAt = -1; // skip should keep bytes starting at this pos
 
-    Map<String, Object> tempObjects = null; // used in reflection object decoder
+    Object[][] tempObjects = null; // used in reflection object decoder, indexed by decoder
+    Object[] scratchArrays = null; // used in generated primitive array decoder, indexed by component type
     final Slice reusableSlice = new Slice(null, 0, 0);
     char[] reusableChars = new char[32];
     Object existingObject = null; // the object should be bind to next
+    FieldMask fieldMask = null; // properties to bind in the current read, null to bind all
+    boolean recycling = false; // decode into the existing elements of lists in the current read
+    boolean compactUntyped = false; // decode untyped values compactly in the current read
 
     static {
         for (int i = 0; i < valueTypes.length; i++) {
@@ -266,6 +270,31 @@ public class JsonIterator implements Closeable {
         }
     };
 
+    private final static ReadObjectCallback fillCompactObject = new ReadObjectCallback() {
+        @Override
+        public boolean handle(JsonIterator iter, String field, Object attachment) throws IOException {
+            CompactMap map = (CompactMap) attachment;
+            // the same few keys repeat over many objects
+            map.put(compactKey(field), iter.read());
+            return true;
+        }
+    };
+
+    // shared keys of compact objects, bounded unlike String.intern, which would keep every key of the input.
+    // best effort: a slot holds the last key hashed to it, and is read and written by all threads without locking,
+    // strings are immutable, so a race only loses sharing
+    private final static String[] compactKeys = new String[1024];
+
+    private static String compactKey(String field) {
+        int slot = field.hashCode() & (compactKeys.length - 1);
+        String key = compactKeys[slot];
+        if (field.equals(key)) {
+            return key;
+        }
+        compactKeys[slot] = field;
+        return field;
+    }
+
     public final Object read() throws IOException {
         try {
             ValueType valueType = whatIsNext();
@@ -273,6 +302,9 @@ public class JsonIterator implements Closeable {
                 case STRING:
                     return readString();
                 case NUMBER:
+                    if (compactUntyped) {
+                        return IterImplNumber.readNumberAsObject(this);
+                    }
                     return readDouble();
                 case NULL:
                     IterImpl.skipFixedBytes(this, 4);
@@ -284,6 +316,11 @@ public class JsonIterator implements Closeable {
                     readArrayCB(fillArray, list);
                     return list;
                 case OBJECT:
+                    if (compactUntyped) {
+                        CompactMap compactMap = new CompactMap();
+                        readObjectCB(fillCompactObject, compactMap);
+                        return compactMap;
+                    }
                     Map map = new HashMap(4);
                     readObjectCB(fillObject, map);
                     return map;
@@ -331,6 +368,66 @@ public class JsonIterator implements Closeable {
         }
     }
 
+    /**
+     * bind to existing object, when recycling also decode into the existing elements of its array backed lists,
+     * extra elements are removed, missing ones appended
+     *
+     * @param existingObject the object instance to reuse
+     * @param recycling      true to reuse list elements
+     * @param <T>            object type
+     * @return data binding result, might not be the same object
+     * @throws IOException if I/O went wrong
+     */
+    public final <T> T read(T existingObject, boolean recycling) throws IOException {
+        boolean outer = this.recycling;
+        this.recycling = recycling;
+        try {
+            return read(existingObject);
+        } finally {
+            this.recycling = outer;
+        }
+    }
+
+    public final <T> T read(TypeLiteral<T> typeLiteral, T existingObject, boolean recycling) throws IOException {
+        boolean outer = this.recycling;
+        this.recycling = recycling;
+        try {
+            return read(typeLiteral, existingObject);
+        } finally {
+            this.recycling = outer;
+        }
+    }
+
+    /**
+     * when compactUntyped, untyped values, read() and fields of type Object, are decoded into insertion ordered
+     * CompactMap with shared keys, and integral numbers into Integer or Long instead of Double
+     *
+     * @param clazz          the class to bind
+     * @param compactUntyped true to decode untyped values compactly
+     * @param <T>            object type
+     * @return data binding result
+     * @throws IOException if I/O went wrong
+     */
+    public final <T> T read(Class<T> clazz, boolean compactUntyped) throws IOException {
+        boolean outer = this.compactUntyped;
+        this.compactUntyped = compactUntyped;
+        try {
+            return read(clazz);
+        } finally {
+            this.compactUntyped = outer;
+        }
+    }
+
+    public final <T> T read(TypeLiteral<T> typeLiteral, boolean compactUntyped) throws IOException {
+        boolean outer = this.compactUntyped;
+        this.compactUntyped = compactUntyped;
+        try {
+            return read(typeLiteral);
+        } finally {
+            this.compactUntyped = outer;
+        }
+    }
+
     public final <T> T read(Class<T> clazz) throws IOException {
         try {
             return (T) Codegen.getDecoder(TypeLiteral.create(clazz).getDecoderCacheKey(), clazz).decode(this);
@@ -348,6 +445,35 @@ public class JsonIterator implements Closeable {
         }
     }
 
+    /**
+     * bind only the properties in the field mask, the others are skipped without decoding
+     *
+     * @param clazz     the class to bind
+     * @param fieldMask the properties to bind, per class
+     * @param <T>       object type
+     * @return data binding result
+     * @throws IOException if I/O went wrong
+     */
+    public final <T> T read(Class<T> clazz, FieldMask fieldMask) throws IOException {
+        FieldMask outer = this.fieldMask;
+        this.fieldMask = fieldMask;
+        try {
+            return read(clazz);
+        } finally {
+            this.fieldMask = outer;
+        }
+    }
+
+    public final <T> T read(TypeLiteral<T> typeLiteral, FieldMask fieldMask) throws IOException {
+        FieldMask outer = this.fieldMask;
+        this.fieldMask = fieldMask;
+        try {
+            return read(typeLiteral);
+        } finally {
+            this.fieldMask = outer;
+        }
+    }
+
     public ValueType whatIsNext() throws IOException {
         ValueType valueType = valueTypes[IterImpl.nextToken(this)];
         unreadByte();
@@ -442,6 +568,25 @@ public class JsonIterator implements Closeable {
         Codegen.setMode(mode);
     }
 
+    /**
+     * count field hits and collection sizes in dynamically generated decoders,
+     * regenerate the decoder of a type in background after it decoded warmUp values
+     *
+     * @param warmUp values to decode before regeneration, 0 to disable
+     */
+    public static void enableProfileGuidedDecoding(int warmUp) {
+        Codegen.profileWarmUp = warmUp;
+    }
+
+    /**
+     * in TIERED_MODE, the decoder of a type is generated in background after it decoded this many values
+     *
+     * @param invocations values to decode by reflection before codegen
+     */
+    public static void setTieredThreshold(int invocations) {
+        Codegen.tieredThreshold = invocations;
+    }
+
     public static void enableStreamingSupport() {
         if (isStreamingEnabled) {
             return;
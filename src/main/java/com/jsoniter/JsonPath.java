@@ -0,0 +1,574 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.JsonException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * path compiled once and evaluated many times, against an any or straight against the bytes,
+ * skipping the branches not on the path instead of binding them.
+ * supported: $ .name ['name'] [0] .* [*] and filters like [?(@.qty > 1)] [?(@.sku)]
+ */
+public class JsonPath {
+
+    private final String path;
+    private final Step[] steps;
+    // no wildcard or filter, at most one result
+    private final boolean definite;
+
+    private JsonPath(String path, Step[] steps) {
+        this.path = path;
+        this.steps = steps;
+        boolean definite = true;
+        for (Step step : steps) {
+            definite = definite && step.isDefinite();
+        }
+        this.definite = definite;
+    }
+
+    public static JsonPath compile(String path) {
+        Parser parser = new Parser(path);
+        if (parser.next() != '$') {
+            throw parser.reportError("expect $");
+        }
+        return new JsonPath(path, parser.parseSteps(false));
+    }
+
+    public List<Any> eval(Any any) {
+        List<Any> results = new ArrayList<Any>(definite ? 1 : 4);
+        evalAny(any, 0, results);
+        return results;
+    }
+
+    public List<Any> eval(byte[] data) {
+        List<Any> results = new ArrayList<Any>(definite ? 1 : 4);
+        JsonIterator iter = JsonIterator.parse(data);
+        try {
+            evalBytes(iter, 0, results);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw iter.reportError("JsonPath", "premature end");
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+        return results;
+    }
+
+    public List<Any> eval(String json) {
+        return eval(CodegenImplObjectHash.getBytes(json));
+    }
+
+    private void evalAny(Any any, int idx, List<Any> results) {
+        if (idx == steps.length) {
+            results.add(any);
+        } else {
+            steps[idx].eval(this, idx, any, results);
+        }
+    }
+
+    private void evalBytes(JsonIterator iter, int idx, List<Any> results) throws IOException {
+        if (idx == steps.length) {
+            results.add(iter.readAny());
+        } else {
+            steps[idx].eval(this, idx, iter, results);
+        }
+    }
+
+    // the single value at a definite path, null if missing
+    private Any find(Any any) {
+        for (Step step : steps) {
+            any = ((DefiniteStep) step).get(any);
+            if (any == null) {
+                return null;
+            }
+        }
+        return any;
+    }
+
+    // field names and indexes of a definite path
+    Object[] keys() {
+        if (!definite) {
+            throw new JsonException("expect path without wildcard or filter: " + path);
+        }
+        Object[] keys = new Object[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            keys[i] = ((DefiniteStep) steps[i]).key();
+        }
+        return keys;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    private abstract static class Step {
+
+        abstract void eval(JsonPath path, int idx, Any any, List<Any> results);
+
+        // leaves the iterator after the value, unless the path is definite and the value was found
+        abstract void eval(JsonPath path, int idx, JsonIterator iter, List<Any> results) throws IOException;
+
+        boolean isDefinite() {
+            return false;
+        }
+    }
+
+    // selects at most one value
+    private abstract static class DefiniteStep extends Step {
+
+        @Override
+        boolean isDefinite() {
+            return true;
+        }
+
+        abstract Any get(Any any);
+
+        // the field name or the index
+        abstract Object key();
+    }
+
+    private static class FieldStep extends DefiniteStep {
+
+        private final Any.Key key;
+        private final Any.Key[] keys;
+
+        private FieldStep(String name) {
+            this.key = Any.Key.of(name);
+            this.keys = new Any.Key[]{key};
+        }
+
+        @Override
+        Object key() {
+            return key.name();
+        }
+
+        @Override
+        Any get(Any any) {
+            if (any.valueType() != ValueType.OBJECT) {
+                return null;
+            }
+            Any value = any.get(key);
+            return value.valueType() == ValueType.INVALID ? null : value;
+        }
+
+        @Override
+        void eval(JsonPath path, int idx, Any any, List<Any> results) {
+            Any value = get(any);
+            if (value != null) {
+                path.evalAny(value, idx + 1, results);
+            }
+        }
+
+        @Override
+        void eval(JsonPath path, int idx, JsonIterator iter, List<Any> results) throws IOException {
+            if (iter.whatIsNext() != ValueType.OBJECT) {
+                iter.skip();
+                return;
+            }
+            if (!CodegenAccess.readObjectStart(iter)) {
+                return;
+            }
+            do {
+                if (Any.Key.matchField(iter, keys) == 0) {
+                    path.evalBytes(iter, idx + 1, results);
+                    if (path.definite) {
+                        return;
+                    }
+                } else {
+                    iter.skip();
+                }
+            } while (CodegenAccess.nextToken(iter) == ',');
+        }
+    }
+
+    private static void skipField(JsonIterator iter) throws IOException {
+        iter.skip();
+        if (IterImpl.nextToken(iter) != ':') {
+            throw iter.reportError("skipField", "expect :");
+        }
+    }
+
+    private static class IndexStep extends DefiniteStep {
+
+        private final int index;
+
+        private IndexStep(int index) {
+            this.index = index;
+        }
+
+        @Override
+        Object key() {
+            return index;
+        }
+
+        @Override
+        Any get(Any any) {
+            if (any.valueType() != ValueType.ARRAY) {
+                return null;
+            }
+            Any value = any.get(index);
+            return value.valueType() == ValueType.INVALID ? null : value;
+        }
+
+        @Override
+        void eval(JsonPath path, int idx, Any any, List<Any> results) {
+            Any value = get(any);
+            if (value != null) {
+                path.evalAny(value, idx + 1, results);
+            }
+        }
+
+        @Override
+        void eval(JsonPath path, int idx, JsonIterator iter, List<Any> results) throws IOException {
+            if (iter.whatIsNext() != ValueType.ARRAY) {
+                iter.skip();
+                return;
+            }
+            if (!CodegenAccess.readArrayStart(iter)) {
+                return;
+            }
+            int i = 0;
+            do {
+                if (i++ == index) {
+                    path.evalBytes(iter, idx + 1, results);
+                    if (path.definite) {
+                        return;
+                    }
+                } else {
+                    iter.skip();
+                }
+            } while (CodegenAccess.nextToken(iter) == ',');
+        }
+    }
+
+    private static class WildcardStep extends Step {
+
+        @Override
+        void eval(JsonPath path, int idx, Any any, List<Any> results) {
+            ValueType valueType = any.valueType();
+            if (valueType == ValueType.ARRAY) {
+                for (Iterator<Any> iter = any.stream(); iter.hasNext(); ) {
+                    path.evalAny(iter.next(), idx + 1, results);
+                }
+            } else if (valueType == ValueType.OBJECT) {
+                Any.EntryIterator entries = any.streamEntries();
+                while (entries.next()) {
+                    path.evalAny(entries.value(), idx + 1, results);
+                }
+            }
+        }
+
+        @Override
+        void eval(JsonPath path, int idx, JsonIterator iter, List<Any> results) throws IOException {
+            ValueType valueType = iter.whatIsNext();
+            if (valueType == ValueType.ARRAY) {
+                if (!CodegenAccess.readArrayStart(iter)) {
+                    return;
+                }
+                do {
+                    path.evalBytes(iter, idx + 1, results);
+                } while (CodegenAccess.nextToken(iter) == ',');
+            } else if (valueType == ValueType.OBJECT) {
+                if (!CodegenAccess.readObjectStart(iter)) {
+                    return;
+                }
+                do {
+                    skipField(iter);
+                    path.evalBytes(iter, idx + 1, results);
+                } while (CodegenAccess.nextToken(iter) == ',');
+            } else {
+                iter.skip();
+            }
+        }
+    }
+
+    // the elements are bound to lazy any to test them, the rest of the path is evaluated on the any
+    private static class FilterStep extends Step {
+
+        private final Predicate predicate;
+
+        private FilterStep(Predicate predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        void eval(JsonPath path, int idx, Any any, List<Any> results) {
+            ValueType valueType = any.valueType();
+            if (valueType == ValueType.ARRAY) {
+                for (Iterator<Any> iter = any.stream(); iter.hasNext(); ) {
+                    Any element = iter.next();
+                    if (predicate.test(element)) {
+                        path.evalAny(element, idx + 1, results);
+                    }
+                }
+            } else if (valueType == ValueType.OBJECT) {
+                Any.EntryIterator entries = any.streamEntries();
+                while (entries.next()) {
+                    if (predicate.test(entries.value())) {
+                        path.evalAny(entries.value(), idx + 1, results);
+                    }
+                }
+            }
+        }
+
+        @Override
+        void eval(JsonPath path, int idx, JsonIterator iter, List<Any> results) throws IOException {
+            ValueType valueType = iter.whatIsNext();
+            if (valueType == ValueType.ARRAY) {
+                if (!CodegenAccess.readArrayStart(iter)) {
+                    return;
+                }
+                do {
+                    Any element = iter.readAny();
+                    if (predicate.test(element)) {
+                        path.evalAny(element, idx + 1, results);
+                    }
+                } while (CodegenAccess.nextToken(iter) == ',');
+            } else if (valueType == ValueType.OBJECT) {
+                if (!CodegenAccess.readObjectStart(iter)) {
+                    return;
+                }
+                do {
+                    skipField(iter);
+                    Any element = iter.readAny();
+                    if (predicate.test(element)) {
+                        path.evalAny(element, idx + 1, results);
+                    }
+                } while (CodegenAccess.nextToken(iter) == ',');
+            } else {
+                iter.skip();
+            }
+        }
+    }
+
+    private static class Predicate {
+
+        private final JsonPath operand;
+        // null to test existence only
+        private final String op;
+        private final Object literal;
+
+        private Predicate(JsonPath operand, String op, Object literal) {
+            this.operand = operand;
+            this.op = op;
+            this.literal = literal;
+        }
+
+        boolean test(Any element) {
+            Any value = operand.find(element);
+            if (value == null) {
+                return false;
+            }
+            if (op == null) {
+                return true;
+            }
+            if ("==".equals(op)) {
+                return isEqual(value);
+            }
+            if ("!=".equals(op)) {
+                return !isEqual(value);
+            }
+            int result;
+            if (literal instanceof Double && value.valueType() == ValueType.NUMBER) {
+                result = Double.compare(value.toDouble(), (Double) literal);
+            } else if (literal instanceof String && value.valueType() == ValueType.STRING) {
+                result = value.toString().compareTo((String) literal);
+            } else {
+                return false;
+            }
+            if ("<".equals(op)) {
+                return result < 0;
+            }
+            if ("<=".equals(op)) {
+                return result <= 0;
+            }
+            if (">".equals(op)) {
+                return result > 0;
+            }
+            return result >= 0;
+        }
+
+        private boolean isEqual(Any value) {
+            ValueType valueType = value.valueType();
+            if (literal == null) {
+                return valueType == ValueType.NULL;
+            }
+            if (literal instanceof Double) {
+                return valueType == ValueType.NUMBER && value.toDouble() == (Double) literal;
+            }
+            if (literal instanceof Boolean) {
+                return valueType == ValueType.BOOLEAN && value.toBoolean() == (Boolean) literal;
+            }
+            return valueType == ValueType.STRING && value.toString().equals(literal);
+        }
+    }
+
+    private static class Parser {
+
+        private final String path;
+        private int pos;
+
+        private Parser(String path) {
+            this.path = path;
+        }
+
+        private boolean hasNext() {
+            return pos < path.length();
+        }
+
+        private char peek() {
+            return hasNext() ? path.charAt(pos) : 0;
+        }
+
+        private char next() {
+            if (!hasNext()) {
+                throw reportError("premature end");
+            }
+            return path.charAt(pos++);
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw reportError("expect " + c);
+            }
+        }
+
+        private void skipWhitespaces() {
+            while (peek() == ' ') {
+                pos++;
+            }
+        }
+
+        private JsonException reportError(String msg) {
+            return new JsonException("invalid json path " + path + " at " + pos + ": " + msg);
+        }
+
+        // relative paths in filters only select a single value
+        private Step[] parseSteps(boolean relative) {
+            List<Step> steps = new ArrayList<Step>();
+            for (; ; ) {
+                char c = peek();
+                if (c == '.') {
+                    pos++;
+                    if (peek() == '.') {
+                        throw reportError("recursive descent not supported");
+                    }
+                    if (peek() == '*' && !relative) {
+                        pos++;
+                        steps.add(new WildcardStep());
+                    } else {
+                        steps.add(new FieldStep(parseName()));
+                    }
+                } else if (c == '[') {
+                    pos++;
+                    steps.add(parseBracket(relative));
+                    expect(']');
+                } else if (relative || !hasNext()) {
+                    return steps.toArray(new Step[steps.size()]);
+                } else {
+                    throw reportError("unexpected " + c);
+                }
+            }
+        }
+
+        private String parseName() {
+            int start = pos;
+            while (hasNext() && ".[]()=!<> ".indexOf(peek()) == -1) {
+                pos++;
+            }
+            if (start == pos) {
+                throw reportError("expect field name");
+            }
+            return path.substring(start, pos);
+        }
+
+        private Step parseBracket(boolean relative) {
+            char c = peek();
+            if (c == '\'' || c == '"') {
+                return new FieldStep(parseString());
+            }
+            if (c == '*' && !relative) {
+                pos++;
+                return new WildcardStep();
+            }
+            if (c == '?' && !relative) {
+                pos++;
+                expect('(');
+                FilterStep step = new FilterStep(parsePredicate());
+                expect(')');
+                return step;
+            }
+            int start = pos;
+            while (peek() >= '0' && peek() <= '9') {
+                pos++;
+            }
+            if (start == pos) {
+                throw reportError("expect index, quoted field name, * or filter");
+            }
+            return new IndexStep(Integer.parseInt(path.substring(start, pos)));
+        }
+
+        private String parseString() {
+            char quote = next();
+            int start = pos;
+            char c = next();
+            while (c != quote) {
+                c = next();
+            }
+            return path.substring(start, pos - 1);
+        }
+
+        private Predicate parsePredicate() {
+            skipWhitespaces();
+            expect('@');
+            JsonPath operand = new JsonPath(path, parseSteps(true));
+            skipWhitespaces();
+            int start = pos;
+            while ("=!<>".indexOf(peek()) != -1) {
+                pos++;
+            }
+            String op = path.substring(start, pos);
+            if (op.isEmpty()) {
+                return new Predicate(operand, null, null);
+            }
+            if (!"==".equals(op) && !"!=".equals(op) && !"<".equals(op) && !"<=".equals(op)
+                    && !">".equals(op) && !">=".equals(op)) {
+                throw reportError("unsupported operator " + op);
+            }
+            skipWhitespaces();
+            Object literal = parseLiteral();
+            skipWhitespaces();
+            return new Predicate(operand, op, literal);
+        }
+
+        private Object parseLiteral() {
+            char c = peek();
+            if (c == '\'' || c == '"') {
+                return parseString();
+            }
+            int start = pos;
+            while (hasNext() && ") ".indexOf(peek()) == -1) {
+                pos++;
+            }
+            String literal = path.substring(start, pos);
+            if ("true".equals(literal)) {
+                return Boolean.TRUE;
+            }
+            if ("false".equals(literal)) {
+                return Boolean.FALSE;
+            }
+            if ("null".equals(literal)) {
+                return null;
+            }
+            try {
+                return Double.valueOf(literal);
+            } catch (NumberFormatException e) {
+                throw reportError("invalid literal " + literal);
+            }
+        }
+    }
+}
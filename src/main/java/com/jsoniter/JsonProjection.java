@@ -0,0 +1,279 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.JsonException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * extract many definite paths like $.user.id or $.tags[0] in one pass over the bytes.
+ * the paths share a trie, fields not in it are skipped, objects and arrays are left
+ * as soon as every path under them is found. values go into typed slots of a reusable result
+ */
+public class JsonProjection {
+
+    final static int LONG = 0;
+    final static int DOUBLE = 1;
+    final static int SLICE = 2;
+    final static int STRING = 3;
+
+    private final Node root = new Node();
+    private int size;
+
+    public int addLong(String path) {
+        return add(path, LONG);
+    }
+
+    public int addDouble(String path) {
+        return add(path, DOUBLE);
+    }
+
+    // the raw json of the value, pointing into the projected bytes
+    public int addSlice(String path) {
+        return add(path, SLICE);
+    }
+
+    public int addString(String path) {
+        return add(path, STRING);
+    }
+
+    private int add(String path, int slotType) {
+        Object[] keys = JsonPath.compile(path).keys();
+        Node node = root;
+        List<Node> parents = new ArrayList<Node>(keys.length);
+        for (Object key : keys) {
+            if (node.slot != -1) {
+                throw new JsonException("path overlaps with another one: " + path);
+            }
+            parents.add(node);
+            node = node.child(key);
+        }
+        if (node.slot != -1 || node.slotCount != 0) {
+            throw new JsonException("path overlaps with another one: " + path);
+        }
+        node.slot = size++;
+        node.slotType = slotType;
+        node.slotCount = 1;
+        for (Node parent : parents) {
+            parent.slotCount++;
+        }
+        return node.slot;
+    }
+
+    public Result newResult() {
+        return new Result(size);
+    }
+
+    public Result project(byte[] data, Result result) {
+        if (result.found.length != size) {
+            throw new JsonException("result was created before the last path was added");
+        }
+        result.reset(data);
+        JsonIterator iter = result.iter;
+        try {
+            project(iter, root, result);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw iter.reportError("project", "premature end");
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+        return result;
+    }
+
+    // the number of slots under the node filled by this value
+    private int project(JsonIterator iter, Node node, Result result) throws IOException {
+        if (node.slot != -1) {
+            return result.fill(node) ? 1 : 0;
+        }
+        ValueType valueType = iter.whatIsNext();
+        if (valueType == ValueType.OBJECT && node.fieldKeys != null) {
+            return projectObject(iter, node, result);
+        }
+        if (valueType == ValueType.ARRAY && node.indexes != null) {
+            return projectArray(iter, node, result);
+        }
+        iter.skip();
+        return 0;
+    }
+
+    private int projectObject(JsonIterator iter, Node node, Result result) throws IOException {
+        if (!CodegenAccess.readObjectStart(iter)) {
+            return 0;
+        }
+        int filled = 0;
+        do {
+            int matched = Any.Key.matchField(iter, node.fieldKeys);
+            if (matched == -1) {
+                iter.skip();
+                continue;
+            }
+            filled += project(iter, node.fieldNodes[matched], result);
+            if (filled == node.slotCount) {
+                // nothing after the document is read
+                if (node != root) {
+                    IterImpl.skipObject(iter);
+                }
+                return filled;
+            }
+        } while (CodegenAccess.nextToken(iter) == ',');
+        return filled;
+    }
+
+    private int projectArray(JsonIterator iter, Node node, Result result) throws IOException {
+        if (!CodegenAccess.readArrayStart(iter)) {
+            return 0;
+        }
+        int filled = 0;
+        int i = 0;
+        do {
+            Node child = node.indexNode(i++);
+            if (child == null) {
+                iter.skip();
+                continue;
+            }
+            filled += project(iter, child, result);
+            if (filled == node.slotCount) {
+                if (node != root) {
+                    IterImpl.skipArray(iter);
+                }
+                return filled;
+            }
+        } while (CodegenAccess.nextToken(iter) == ',');
+        return filled;
+    }
+
+    private static class Node {
+
+        private int slot = -1;
+        private int slotType;
+        // slots in the subtree
+        private int slotCount;
+        private Any.Key[] fieldKeys;
+        private Node[] fieldNodes;
+        private int[] indexes;
+        private Node[] indexNodes;
+
+        private Node child(Object key) {
+            if (key instanceof Integer) {
+                int index = (Integer) key;
+                Node child = indexNode(index);
+                if (child == null) {
+                    child = new Node();
+                    int len = indexes == null ? 0 : indexes.length;
+                    indexes = indexes == null ? new int[1] : Arrays.copyOf(indexes, len + 1);
+                    indexNodes = indexNodes == null ? new Node[1] : Arrays.copyOf(indexNodes, len + 1);
+                    indexes[len] = index;
+                    indexNodes[len] = child;
+                }
+                return child;
+            }
+            String name = (String) key;
+            int len = fieldKeys == null ? 0 : fieldKeys.length;
+            for (int i = 0; i < len; i++) {
+                if (fieldKeys[i].name().equals(name)) {
+                    return fieldNodes[i];
+                }
+            }
+            Node child = new Node();
+            fieldKeys = fieldKeys == null ? new Any.Key[1] : Arrays.copyOf(fieldKeys, len + 1);
+            fieldNodes = fieldNodes == null ? new Node[1] : Arrays.copyOf(fieldNodes, len + 1);
+            fieldKeys[len] = Any.Key.of(name);
+            fieldNodes[len] = child;
+            return child;
+        }
+
+        private Node indexNode(int index) {
+            if (indexes == null) {
+                return null;
+            }
+            for (int i = 0; i < indexes.length; i++) {
+                if (indexes[i] == index) {
+                    return indexNodes[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    // reused across documents, only string slots allocate
+    public static class Result {
+
+        private final JsonIterator iter = new JsonIterator();
+        private final boolean[] found;
+        private final long[] longs;
+        private final double[] doubles;
+        private final Slice[] slices;
+        private final String[] strings;
+
+        private Result(int size) {
+            found = new boolean[size];
+            longs = new long[size];
+            doubles = new double[size];
+            slices = new Slice[size];
+            strings = new String[size];
+        }
+
+        private void reset(byte[] data) {
+            iter.reset(data);
+            Arrays.fill(found, false);
+            Arrays.fill(longs, 0);
+            Arrays.fill(doubles, 0);
+            Arrays.fill(strings, null);
+        }
+
+        // null is skipped as not found, a field seen twice keeps the first value
+        private boolean fill(Node node) throws IOException {
+            int slot = node.slot;
+            if (found[slot] || iter.whatIsNext() == ValueType.NULL) {
+                iter.skip();
+                return false;
+            }
+            switch (node.slotType) {
+                case LONG:
+                    longs[slot] = iter.readLong();
+                    break;
+                case DOUBLE:
+                    doubles[slot] = iter.readDouble();
+                    break;
+                case SLICE:
+                    IterImpl.nextToken(iter);
+                    int head = iter.head - 1;
+                    iter.unreadByte();
+                    iter.skip();
+                    if (slices[slot] == null) {
+                        slices[slot] = new Slice(iter.buf, head, iter.head);
+                    } else {
+                        slices[slot].reset(iter.buf, head, iter.head);
+                    }
+                    break;
+                default:
+                    strings[slot] = iter.readString();
+            }
+            found[slot] = true;
+            return true;
+        }
+
+        public boolean has(int slot) {
+            return found[slot];
+        }
+
+        public long getLong(int slot) {
+            return longs[slot];
+        }
+
+        public double getDouble(int slot) {
+            return doubles[slot];
+        }
+
+        public Slice getSlice(int slot) {
+            return found[slot] ? slices[slot] : null;
+        }
+
+        public String getString(int slot) {
+            return strings[slot];
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.JsoniterSpi;
+import com.jsoniter.spi.TypeLiteral;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// decode the quoted map key straight into the key type, the : after it is left to the map decoder
+class MapKeyDecoders {
+
+    private final static List<Type> NUMBER_KEYS = Arrays.<Type>asList(
+            Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+            BigInteger.class, BigDecimal.class);
+
+    static String getCacheKey(Type mapKey) {
+        return TypeLiteral.create(mapKey).getDecoderCacheKey() + "__map_key";
+    }
+
+    static Decoder registerOrGetExisting(Type mapKey) {
+        String cacheKey = getCacheKey(mapKey);
+        Decoder mapKeyDecoder = JsoniterSpi.getDecoder(cacheKey);
+        if (mapKeyDecoder != null) {
+            return mapKeyDecoder;
+        }
+        mapKeyDecoder = createMapKeyDecoder(mapKey);
+        JsoniterSpi.addNewDecoder(cacheKey, mapKeyDecoder);
+        return mapKeyDecoder;
+    }
+
+    private static Decoder createMapKeyDecoder(Type mapKey) {
+        if (mapKey == String.class || mapKey == Object.class) {
+            return new StringKeyDecoder();
+        }
+        if (mapKey == UUID.class) {
+            return new UUIDKeyDecoder();
+        }
+        if (mapKey instanceof Class && ((Class) mapKey).isEnum()) {
+            // enum decoder reads the quoted name already
+            return Codegen.getDecoder(TypeLiteral.create(mapKey).getDecoderCacheKey(), mapKey);
+        }
+        if (NUMBER_KEYS.contains(mapKey)) {
+            return new NumberKeyDecoder(Codegen.getDecoder(TypeLiteral.create(mapKey).getDecoderCacheKey(), mapKey));
+        }
+        throw new JsonException("unsupported map key type: " + mapKey);
+    }
+
+    private static class StringKeyDecoder implements Decoder {
+
+        @Override
+        public Object decode(JsonIterator iter) throws IOException {
+            return iter.readString();
+        }
+    }
+
+    private static class NumberKeyDecoder implements Decoder {
+
+        private final Decoder decoder;
+
+        private NumberKeyDecoder(Decoder decoder) {
+            this.decoder = decoder;
+        }
+
+        @Override
+        public Object decode(JsonIterator iter) throws IOException {
+            if (IterImpl.nextToken(iter) != '"') {
+                throw iter.reportError("decode number map key", "expect \"");
+            }
+            Object key = decoder.decode(iter);
+            if (IterImpl.readByte(iter) != '"') {
+                throw iter.reportError("decode number map key", "expect \"");
+            }
+            return key;
+        }
+    }
+
+    private static class UUIDKeyDecoder implements Decoder {
+
+        @Override
+        public Object decode(JsonIterator iter) throws IOException {
+            Slice slice = IterImpl.readSlice(iter);
+            byte[] data = slice.data();
+            int head = slice.head();
+            // 8-4-4-4-12 hex digits
+            if (slice.len() != 36 || data[head + 8] != '-' || data[head + 13] != '-'
+                    || data[head + 18] != '-' || data[head + 23] != '-') {
+                throw iter.reportError("decode uuid map key", "invalid uuid: " + slice);
+            }
+            long mostSigBits = (hex(iter, data, head, 8) << 32)
+                    | (hex(iter, data, head + 9, 4) << 16)
+                    | hex(iter, data, head + 14, 4);
+            long leastSigBits = (hex(iter, data, head + 19, 4) << 48)
+                    | hex(iter, data, head + 24, 12);
+            return new UUID(mostSigBits, leastSigBits);
+        }
+
+        private static long hex(JsonIterator iter, byte[] data, int start, int len) {
+            long value = 0;
+            for (int i = start; i < start + len; i++) {
+                int digit = Character.digit(data[i], 16);
+                if (digit == -1) {
+                    throw iter.reportError("decode uuid map key", "invalid hex digit: " + (char) data[i]);
+                }
+                value = (value << 4) | digit;
+            }
+            return value;
+        }
+    }
+}
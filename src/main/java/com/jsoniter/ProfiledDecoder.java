@@ -0,0 +1,98 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.Decoder;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+// collects statistics of one type while decoding, the decoder is regenerated from them after warm up
+// counters are not synchronized, they only need to be roughly right
+public class ProfiledDecoder implements Decoder {
+
+    final String cacheKey;
+    final Class clazz;
+    final Type[] typeArgs;
+    private final int warmUp;
+    private volatile Decoder decoder;
+    private List<String> fieldNames;
+    private long[] fieldHits;
+    private long unknownFields;
+    private long sizes;
+    private long sized;
+    private int decoded;
+    private boolean scheduled;
+    // set by the background codegen thread
+    volatile boolean regenerated;
+
+    ProfiledDecoder(String cacheKey, Class clazz, Type[] typeArgs, int warmUp) {
+        this.cacheKey = cacheKey;
+        this.clazz = clazz;
+        this.typeArgs = typeArgs;
+        this.warmUp = warmUp;
+    }
+
+    @Override
+    public Object decode(JsonIterator iter) throws IOException {
+        return decoder.decode(iter);
+    }
+
+    void setDecoder(Decoder decoder) {
+        this.decoder = decoder;
+    }
+
+    Decoder getDecoder() {
+        return decoder;
+    }
+
+    // called by codegen, generated code counts hits of the field by the returned index
+    int watchField(String fieldName) {
+        if (fieldNames == null) {
+            fieldNames = new ArrayList<String>();
+        }
+        int index = fieldNames.indexOf(fieldName);
+        if (index == -1) {
+            fieldNames.add(fieldName);
+            fieldHits = new long[fieldNames.size()];
+            index = fieldNames.size() - 1;
+        }
+        return index;
+    }
+
+    long hitsOf(String fieldName) {
+        if (fieldNames == null) {
+            return 0;
+        }
+        int index = fieldNames.indexOf(fieldName);
+        return index == -1 ? 0 : fieldHits[index];
+    }
+
+    long unknownFields() {
+        return unknownFields;
+    }
+
+    int averageSize() {
+        return sized == 0 ? 0 : (int) (sizes / sized);
+    }
+
+    public void hit(int fieldIndex) {
+        fieldHits[fieldIndex]++;
+    }
+
+    public void unknown() {
+        unknownFields++;
+    }
+
+    public void size(int size) {
+        sizes += size;
+        sized++;
+    }
+
+    public void decoded() {
+        if (++decoded >= warmUp && !scheduled) {
+            scheduled = true;
+            Codegen.regenerateInBackground(this);
+        }
+    }
+}
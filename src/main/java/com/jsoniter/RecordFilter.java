@@ -0,0 +1,231 @@
+package com.jsoniter;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.JsonException;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+
+/**
+ * conditions on the top level fields of a record, all of them must hold.
+ * they are checked on the bytes during one scan of the fields, so a rejected record
+ * is skipped without being bound. only escaped field names are decoded
+ */
+public class RecordFilter {
+
+    private final static int EQUAL = 0;
+    private final static int NOT_EQUAL = 1;
+    private final static int GREATER = 2;
+    private final static int GREATER_OR_EQUAL = 3;
+    private final static int LESS = 4;
+    private final static int LESS_OR_EQUAL = 5;
+
+    // by field, a field can have several conditions
+    private Any.Key[] keys = new Any.Key[0];
+    private Condition[][] conditions = new Condition[0][];
+
+    public RecordFilter equal(String field, Object value) {
+        return add(field, new Condition(EQUAL, value));
+    }
+
+    public RecordFilter notEqual(String field, Object value) {
+        return add(field, new Condition(NOT_EQUAL, value));
+    }
+
+    public RecordFilter greaterThan(String field, double value) {
+        return add(field, new Condition(GREATER, value));
+    }
+
+    public RecordFilter greaterOrEqual(String field, double value) {
+        return add(field, new Condition(GREATER_OR_EQUAL, value));
+    }
+
+    public RecordFilter lessThan(String field, double value) {
+        return add(field, new Condition(LESS, value));
+    }
+
+    public RecordFilter lessOrEqual(String field, double value) {
+        return add(field, new Condition(LESS_OR_EQUAL, value));
+    }
+
+    private RecordFilter add(String field, Condition condition) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].name().equals(field)) {
+                conditions[i] = Arrays.copyOf(conditions[i], conditions[i].length + 1);
+                conditions[i][conditions[i].length - 1] = condition;
+                return this;
+            }
+        }
+        int len = keys.length;
+        if (len == 64) {
+            throw new JsonException("record filter supports at most 64 fields");
+        }
+        keys = Arrays.copyOf(keys, len + 1);
+        conditions = Arrays.copyOf(conditions, len + 1);
+        keys[len] = Any.Key.of(field);
+        conditions[len] = new Condition[]{condition};
+        return this;
+    }
+
+    /**
+     * check the next record, a record read from a stream is buffered whole first
+     *
+     * @param iter positioned before the record
+     * @return true with the iterator still before the record, to bind it,
+     * false with the record skipped
+     * @throws IOException if I/O went wrong
+     */
+    public boolean accept(JsonIterator iter) throws IOException {
+        if (iter.in != null) {
+            bufferRecord(iter);
+        }
+        int start = iter.head;
+        if (iter.whatIsNext() != ValueType.OBJECT) {
+            iter.skip();
+            return false;
+        }
+        if (keys.length == 0) {
+            return true;
+        }
+        long matched = 0;
+        long expected = keys.length == 64 ? -1L : (1L << keys.length) - 1;
+        if (CodegenAccess.readObjectStart(iter)) {
+            do {
+                int idx = Any.Key.matchField(iter, keys);
+                if (idx == -1) {
+                    iter.skip();
+                } else if (test(iter, conditions[idx])) {
+                    matched |= 1L << idx;
+                } else {
+                    IterImpl.skipObject(iter);
+                    return false;
+                }
+            } while (CodegenAccess.nextToken(iter) == ',');
+        }
+        if ((matched & expected) != expected) {
+            return false;
+        }
+        iter.head = start;
+        return true;
+    }
+
+    // skip the record keeping its bytes, then go back to check it from the buffer
+    private static void bufferRecord(JsonIterator iter) throws IOException {
+        int start;
+        iter.skipStartedAt = iter.head;
+        try {
+            iter.skip();
+            // moved when more was loaded
+            start = iter.skipStartedAt;
+        } finally {
+            iter.skipStartedAt = -1;
+        }
+        iter.head = start;
+    }
+
+    // each condition reads the value again
+    private static boolean test(JsonIterator iter, Condition[] conditions) throws IOException {
+        int valueStart = iter.head;
+        for (Condition condition : conditions) {
+            iter.head = valueStart;
+            if (!condition.test(iter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] utf8(String str) {
+        try {
+            return str.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    private static class Condition {
+
+        private final int op;
+        private final Object value;
+        private final byte[] bytes;
+        private final double number;
+
+        private Condition(int op, Object value) {
+            this.op = op;
+            this.value = value instanceof Number && !(value instanceof Double) ? ((Number) value).doubleValue() : value;
+            this.bytes = value instanceof String ? utf8((String) value) : null;
+            this.number = this.value instanceof Double ? (Double) this.value : 0;
+        }
+
+        // consumes the value
+        private boolean test(JsonIterator iter) throws IOException {
+            if (op == EQUAL) {
+                return isEqual(iter);
+            }
+            if (op == NOT_EQUAL) {
+                return !isEqual(iter);
+            }
+            if (iter.whatIsNext() != ValueType.NUMBER) {
+                iter.skip();
+                return false;
+            }
+            double actual = iter.readDouble();
+            switch (op) {
+                case GREATER:
+                    return actual > number;
+                case GREATER_OR_EQUAL:
+                    return actual >= number;
+                case LESS:
+                    return actual < number;
+                default:
+                    return actual <= number;
+            }
+        }
+
+        private boolean isEqual(JsonIterator iter) throws IOException {
+            ValueType valueType = iter.whatIsNext();
+            if (value == null) {
+                iter.skip();
+                return valueType == ValueType.NULL;
+            }
+            if (bytes != null && valueType == ValueType.STRING) {
+                return matchString(iter);
+            }
+            if (value instanceof Double && valueType == ValueType.NUMBER) {
+                return iter.readDouble() == number;
+            }
+            if (value instanceof Boolean && valueType == ValueType.BOOLEAN) {
+                return iter.readBoolean() == (Boolean) value;
+            }
+            iter.skip();
+            return false;
+        }
+
+        // only escaped strings are decoded
+        private boolean matchString(JsonIterator iter) throws IOException {
+            IterImpl.nextToken(iter);
+            int start = iter.head;
+            for (int i = start; i < iter.tail; i++) {
+                byte c = iter.buf[i];
+                if (c == '\\') {
+                    iter.unreadByte();
+                    return value.equals(iter.readString());
+                }
+                if (c == '"') {
+                    iter.head = i + 1;
+                    if (i - start != bytes.length) {
+                        return false;
+                    }
+                    for (int j = 0; j < bytes.length; j++) {
+                        if (iter.buf[start + j] != bytes[j]) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            }
+            throw iter.reportError("matchString", "incomplete string");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.jsoniter;
+
+import com.jsoniter.spi.JsonException;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * bind the records of a json array, or of values separated by whitespace like ndjson, one at a time.
+ * records rejected by the filter are skipped without being bound
+ */
+public class RecordIterator<T> implements Iterator<T> {
+
+    private final static int NOT_STARTED = 0;
+    private final static int ARRAY = 1;
+    private final static int LINES = 2;
+    private final static int END = 3;
+
+    private final JsonIterator iter;
+    private final Class<T> clazz;
+    private final RecordFilter filter;
+    private int state = NOT_STARTED;
+    private boolean ready;
+    private T next;
+
+    /**
+     * @param iter   over the bytes of all the records
+     * @param clazz  the class to bind records to
+     * @param filter null to bind every record
+     */
+    public RecordIterator(JsonIterator iter, Class<T> clazz, RecordFilter filter) {
+        this.iter = iter;
+        this.clazz = clazz;
+        this.filter = filter;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (ready) {
+            return true;
+        }
+        try {
+            while (nextRecord()) {
+                if (filter == null || filter.accept(iter)) {
+                    next = iter.read(clazz);
+                    ready = true;
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    // move before the next record, false at the end
+    private boolean nextRecord() throws IOException {
+        switch (state) {
+            case NOT_STARTED:
+                if (skipWhitespaces()) {
+                    state = END;
+                    return false;
+                }
+                if (iter.buf[iter.head] != '[') {
+                    state = LINES;
+                    return true;
+                }
+                iter.head++;
+                state = ARRAY;
+                if (IterImpl.nextToken(iter) == ']') {
+                    state = END;
+                    return false;
+                }
+                iter.unreadByte();
+                return true;
+            case ARRAY:
+                // after the record read last
+                byte c = IterImpl.nextToken(iter);
+                if (c == ',') {
+                    return true;
+                }
+                if (c != ']') {
+                    throw iter.reportError("RecordIterator", "expect , or ]");
+                }
+                state = END;
+                return false;
+            case LINES:
+                if (skipWhitespaces()) {
+                    state = END;
+                    return false;
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // true at the end of the input, a stream is read until a record starts
+    private boolean skipWhitespaces() throws IOException {
+        while (CodegenAccess.skipWhitespacesWithoutLoadMore(iter)) {
+            if (!IterImpl.loadMore(iter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        T record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -14,7 +14,7 @@ class ReflectionArrayDecoder implements Decoder {
 
     public ReflectionArrayDecoder(Class clazz) {
         componentType = clazz.getComponentType();
-        compTypeDecoder = Codegen.getDecoder(TypeLiteral.create(componentType).getDecoderCacheKey(), componentType);
+        compTypeDecoder = Codegen.getDependency(TypeLiteral.create(componentType).getDecoderCacheKey(), componentType);
     }
 
     @Override
@@ -48,6 +48,21 @@ class ReflectionArrayDecoder implements Decoder {
             return arr;
         }
         Object a4 = compTypeDecoder.decode(iter);
+        int more = IterImplSkip.countRemainingElements(iter);
+        if (more != -1) {
+            // the rest of the array is in the buffer, allocate once
+            Object arr = Array.newInstance(componentType, 4 + more);
+            Array.set(arr, 0, a1);
+            Array.set(arr, 1, a2);
+            Array.set(arr, 2, a3);
+            Array.set(arr, 3, a4);
+            for (int i = 4; i < 4 + more; i++) {
+                CodegenAccess.nextToken(iter);
+                Array.set(arr, i, compTypeDecoder.decode(iter));
+            }
+            CodegenAccess.nextToken(iter);
+            return arr;
+        }
         Object arr = Array.newInstance(componentType, 8);
         Array.set(arr, 0, a1);
         Array.set(arr, 1, a2);
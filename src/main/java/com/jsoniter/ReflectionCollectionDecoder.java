@@ -8,10 +8,12 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Type;
 import java.util.Collection;
+import java.util.List;
 
 class ReflectionCollectionDecoder implements Decoder {
     private final Constructor ctor;
     private final Decoder compTypeDecoder;
+    private final boolean recycle;
 
     public ReflectionCollectionDecoder(Class clazz, Type[] typeArgs) {
         try {
@@ -19,7 +21,8 @@ class ReflectionCollectionDecoder implements Decoder {
         } catch (NoSuchMethodException e) {
             throw new JsonException(e);
         }
-        compTypeDecoder = Codegen.getDecoder(TypeLiteral.create(typeArgs[0]).getDecoderCacheKey(), typeArgs[0]);
+        compTypeDecoder = Codegen.getDependency(TypeLiteral.create(typeArgs[0]).getDecoderCacheKey(), typeArgs[0]);
+        recycle = CodegenImplArray.canRecycle(clazz, typeArgs[0]);
     }
 
     @Override
@@ -38,6 +41,8 @@ class ReflectionCollectionDecoder implements Decoder {
         }
         if (col == null) {
             col = (Collection) this.ctor.newInstance();
+        } else if (recycle && iter.recycling) {
+            return recycle((List) col, iter);
         } else {
             col.clear();
         }
@@ -46,4 +51,22 @@ class ReflectionCollectionDecoder implements Decoder {
         }
         return col;
     }
+
+    private List recycle(List list, JsonIterator iter) throws IOException {
+        int size = list.size();
+        int i = 0;
+        while (iter.readArray()) {
+            if (i < size) {
+                CodegenAccess.setExistingObject(iter, list.get(i));
+                list.set(i, compTypeDecoder.decode(iter));
+                // in case the decoder does not take it
+                CodegenAccess.resetExistingObject(iter);
+            } else {
+                list.add(compTypeDecoder.decode(iter));
+            }
+            i++;
+        }
+        CodegenAccess.truncateList(list, i);
+        return list;
+    }
 }
@@ -7,21 +7,31 @@ import com.jsoniter.spi.TypeLiteral;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Type;
+import java.util.EnumMap;
 import java.util.Map;
 
 class ReflectionMapDecoder implements Decoder {
 
     private final Constructor ctor;
+    private final Object[] ctorArgs;
+    private final Decoder mapKeyDecoder;
     private final Decoder valueTypeDecoder;
 
     public ReflectionMapDecoder(Class clazz, Type[] typeArgs) {
         try {
-            ctor = clazz.getConstructor();
+            if (EnumMap.class.isAssignableFrom(clazz)) {
+                ctor = clazz.getConstructor(Class.class);
+                ctorArgs = new Object[]{typeArgs[0]};
+            } else {
+                ctor = clazz.getConstructor();
+                ctorArgs = new Object[0];
+            }
         } catch (NoSuchMethodException e) {
             throw new JsonException(e);
         }
+        mapKeyDecoder = typeArgs[0] == String.class ? null : MapKeyDecoders.registerOrGetExisting(typeArgs[0]);
         TypeLiteral valueTypeLiteral = TypeLiteral.create(typeArgs[1]);
-        valueTypeDecoder = Codegen.getDecoder(valueTypeLiteral.getDecoderCacheKey(), typeArgs[1]);
+        valueTypeDecoder = Codegen.getDependency(valueTypeLiteral.getDecoderCacheKey(), typeArgs[1]);
     }
 
     @Override
@@ -39,15 +49,24 @@ class ReflectionMapDecoder implements Decoder {
             return null;
         }
         if (map == null) {
-            map = (Map) ctor.newInstance();
+            map = (Map) ctor.newInstance(ctorArgs);
         }
         if (!CodegenAccess.readObjectStart(iter)) {
             return map;
         }
         do {
-            String field = CodegenAccess.readObjectFieldAsString(iter);
+            Object field = mapKeyDecoder == null ?
+                    CodegenAccess.readObjectFieldAsString(iter) : readMapKey(iter);
             map.put(field, valueTypeDecoder.decode(iter));
         } while(CodegenAccess.nextToken(iter) == ',');
         return map;
     }
+
+    private Object readMapKey(JsonIterator iter) throws IOException {
+        Object key = mapKeyDecoder.decode(iter);
+        if (IterImpl.nextToken(iter) != ':') {
+            throw iter.reportError("readMapKey", "expect :");
+        }
+        return key;
+    }
 }
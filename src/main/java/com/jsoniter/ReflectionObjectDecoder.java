@@ -3,6 +3,8 @@ package com.jsoniter;
 import com.jsoniter.spi.*;
 
 import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.*;
 
 class ReflectionObjectDecoder {
@@ -13,9 +15,20 @@ class ReflectionObjectDecoder {
             return "NOT_SET";
         }
     };
-    private Map<Slice, Binding> allBindings = new HashMap<Slice, Binding>();
-    private String tempCacheKey;
-    private String ctorArgsCacheKey;
+    // each decoder using temp objects takes two slots of iter.tempObjects, for temp and ctor args,
+    // the slots of a decoder collected are taken by the next one, so redeploying classes does not grow tempObjects
+    private static int nextTempSlot = 0;
+    private final static LinkedList<Integer> freeTempSlots = new LinkedList<Integer>();
+    private final static ReferenceQueue<ReflectionObjectDecoder> collectedDecoders = new ReferenceQueue<ReflectionObjectDecoder>();
+    // keeps the references themselves reachable until they are enqueued
+    private final static Set<TempSlotReference> tempSlotReferences = new HashSet<TempSlotReference>();
+    private Map<String, Binding> allBindings = new HashMap<String, Binding>();
+    private List<Binding> requiredBindings = new ArrayList<Binding>();
+    // names by binding idx, a field mask is resolved against them
+    private List<String> bindingNames = new ArrayList<String>();
+    private FieldMask.Properties maskedProperties;
+    private FieldTable fieldTable;
+    private int tempSlot;
     private int tempCount;
     private long expectedTracker;
     private int requiredIdx;
@@ -54,10 +67,11 @@ class ReflectionObjectDecoder {
             throw new JsonException("too many required properties to track");
         }
         expectedTracker = Long.MAX_VALUE >> (63 - requiredIdx);
+        fieldTable = new FieldTable(allBindings);
+        maskedProperties = new FieldMask.Properties(clazz.getName(), bindingNames.toArray(new String[bindingNames.size()]));
         if (!desc.ctor.parameters.isEmpty() || !desc.wrappers.isEmpty()) {
             tempCount = tempIdx;
-            tempCacheKey = "temp@" + clazz.getCanonicalName();
-            ctorArgsCacheKey = "ctor@" + clazz.getCanonicalName();
+            tempSlot = takeTempSlot(this);
         }
     }
 
@@ -65,6 +79,7 @@ class ReflectionObjectDecoder {
         if (binding.asMissingWhenNotPresent) {
             binding.mask = 1L << requiredIdx;
             requiredIdx++;
+            requiredBindings.add(binding);
         }
         if (binding.asExtraWhenPresent) {
             binding.decoder = new Decoder() {
@@ -74,20 +89,20 @@ class ReflectionObjectDecoder {
                 }
             };
         }
-        if (binding.decoder == null) {
+        if (binding.decoder == null && JsoniterSpi.getDecoder(binding.decoderCacheKey()) != null) {
             // field decoder might be special customized
-            binding.decoder = JsoniterSpi.getDecoder(binding.decoderCacheKey());
+            binding.decoder = Codegen.getDependency(binding.decoderCacheKey(), binding.valueType);
         }
         if (binding.decoder == null) {
-            binding.decoder = Codegen.getDecoder(binding.valueTypeLiteral.getDecoderCacheKey(), binding.valueType);
+            binding.decoder = Codegen.getDependency(binding.valueTypeLiteral.getDecoderCacheKey(), binding.valueType);
         }
         binding.idx = tempIdx;
+        bindingNames.add(binding.name);
         for (String fromName : binding.fromNames) {
-            Slice slice = Slice.make(fromName);
-            if (allBindings.containsKey(slice)) {
+            if (allBindings.containsKey(fromName)) {
                 throw new JsonException("name conflict found in " + clazz + ": " + fromName);
             }
-            allBindings.put(slice, binding);
+            allBindings.put(fromName, binding);
         }
         tempIdx++;
     }
@@ -132,26 +147,27 @@ class ReflectionObjectDecoder {
             }
             Map<String, Object> extra = null;
             long tracker = 0L;
+            long[] masked = CodegenAccess.masked(iter, maskedProperties);
             Slice fieldName = CodegenAccess.readObjectFieldAsSlice(iter);
-            Binding binding = allBindings.get(fieldName);
+            Binding binding = fieldTable.get(fieldName);
             if (binding == null) {
                 extra = onUnknownProperty(iter, fieldName, extra);
             } else {
                 if (binding.asMissingWhenNotPresent) {
                     tracker |= binding.mask;
                 }
-                setToBinding(obj, binding, decodeBinding(iter, obj, binding));
+                setToBinding(obj, binding, decodeBinding(iter, masked, obj, binding));
             }
             while (CodegenAccess.nextToken(iter) == ',') {
                 fieldName = CodegenAccess.readObjectFieldAsSlice(iter);
-                binding = allBindings.get(fieldName);
+                binding = fieldTable.get(fieldName);
                 if (binding == null) {
                     extra = onUnknownProperty(iter, fieldName, extra);
                 } else {
                     if (binding.asMissingWhenNotPresent) {
                         tracker |= binding.mask;
                     }
-                    setToBinding(obj, binding, decodeBinding(iter, obj, binding));
+                    setToBinding(obj, binding, decodeBinding(iter, masked, obj, binding));
                 }
             }
             if (tracker != expectedTracker) {
@@ -182,14 +198,7 @@ class ReflectionObjectDecoder {
                 CodegenAccess.resetExistingObject(iter);
                 return null;
             }
-            if (iter.tempObjects == null) {
-                iter.tempObjects = new HashMap<String, Object>();
-            }
-            Object[] temp = (Object[]) iter.tempObjects.get(tempCacheKey);
-            if (temp == null) {
-                temp = new Object[tempCount];
-                iter.tempObjects.put(tempCacheKey, temp);
-            }
+            Object[] temp = tempObject(iter, tempSlot, tempCount);
             Arrays.fill(temp, NOT_SET);
             if (!CodegenAccess.readObjectStart(iter)) {
                 if (requiredIdx > 0) {
@@ -199,26 +208,27 @@ class ReflectionObjectDecoder {
             }
             Map<String, Object> extra = null;
             long tracker = 0L;
+            long[] masked = CodegenAccess.masked(iter, maskedProperties);
             Slice fieldName = CodegenAccess.readObjectFieldAsSlice(iter);
-            Binding binding = allBindings.get(fieldName);
+            Binding binding = fieldTable.get(fieldName);
             if (binding == null) {
                 extra = onUnknownProperty(iter, fieldName, extra);
             } else {
                 if (binding.asMissingWhenNotPresent) {
                     tracker |= binding.mask;
                 }
-                temp[binding.idx] = decodeBinding(iter, binding);
+                temp[binding.idx] = decodeBinding(iter, masked, binding);
             }
             while (CodegenAccess.nextToken(iter) == ',') {
                 fieldName = CodegenAccess.readObjectFieldAsSlice(iter);
-                binding = allBindings.get(fieldName);
+                binding = fieldTable.get(fieldName);
                 if (binding == null) {
                     extra = onUnknownProperty(iter, fieldName, extra);
                 } else {
                     if (binding.asMissingWhenNotPresent) {
                         tracker |= binding.mask;
                     }
-                    temp[binding.idx] = decodeBinding(iter, binding);
+                    temp[binding.idx] = decodeBinding(iter, masked, binding);
                 }
             }
             if (tracker != expectedTracker) {
@@ -272,17 +282,11 @@ class ReflectionObjectDecoder {
             }
             Map<String, Object> extra = null;
             long tracker = 0L;
-            if (iter.tempObjects == null) {
-                iter.tempObjects = new HashMap<String, Object>();
-            }
-            Object[] temp = (Object[]) iter.tempObjects.get(tempCacheKey);
-            if (temp == null) {
-                temp = new Object[tempCount];
-                iter.tempObjects.put(tempCacheKey, temp);
-            }
+            long[] masked = CodegenAccess.masked(iter, maskedProperties);
+            Object[] temp = tempObject(iter, tempSlot, tempCount);
             Arrays.fill(temp, NOT_SET);
             Slice fieldName = CodegenAccess.readObjectFieldAsSlice(iter);
-            Binding binding = allBindings.get(fieldName);
+            Binding binding = fieldTable.get(fieldName);
             if (binding == null) {
                 extra = onUnknownProperty(iter, fieldName, extra);
             } else {
@@ -290,14 +294,14 @@ class ReflectionObjectDecoder {
                     tracker |= binding.mask;
                 }
                 if (canNotSetDirectly(binding)) {
-                    temp[binding.idx] = decodeBinding(iter, obj, binding);
+                    temp[binding.idx] = decodeBinding(iter, masked, obj, binding);
                 } else {
-                    setToBinding(obj, binding, decodeBinding(iter, obj, binding));
+                    setToBinding(obj, binding, decodeBinding(iter, masked, obj, binding));
                 }
             }
             while (CodegenAccess.nextToken(iter) == ',') {
                 fieldName = CodegenAccess.readObjectFieldAsSlice(iter);
-                binding = allBindings.get(fieldName);
+                binding = fieldTable.get(fieldName);
                 if (binding == null) {
                     extra = onUnknownProperty(iter, fieldName, extra);
                 } else {
@@ -305,9 +309,9 @@ class ReflectionObjectDecoder {
                         tracker |= binding.mask;
                     }
                     if (canNotSetDirectly(binding)) {
-                        temp[binding.idx] = decodeBinding(iter, obj, binding);
+                        temp[binding.idx] = decodeBinding(iter, masked, obj, binding);
                     } else {
-                        setToBinding(obj, binding, decodeBinding(iter, obj, binding));
+                        setToBinding(obj, binding, decodeBinding(iter, masked, obj, binding));
                     }
                 }
             }
@@ -325,6 +329,9 @@ class ReflectionObjectDecoder {
     }
 
     private void setToBinding(Object obj, Binding binding, Object value) throws Exception {
+        if (value == NOT_SET) {
+            return;
+        }
         if (binding.field != null) {
             binding.field.set(obj, value);
         } else {
@@ -342,17 +349,22 @@ class ReflectionObjectDecoder {
         return binding.field == null && binding.method == null;
     }
 
-    private Object decodeBinding(JsonIterator iter, Binding binding) throws Exception {
-        Object value;
-        value = binding.decoder.decode(iter);
-        return value;
+    // NOT_SET if the field mask of the read leaves the property out
+    private Object decodeBinding(JsonIterator iter, long[] masked, Binding binding) throws Exception {
+        if (CodegenAccess.skipMasked(iter, masked, binding.idx)) {
+            return NOT_SET;
+        }
+        return binding.decoder.decode(iter);
     }
 
-    private Object decodeBinding(JsonIterator iter, Object obj, Binding binding) throws Exception {
+    private Object decodeBinding(JsonIterator iter, long[] masked, Object obj, Binding binding) throws Exception {
+        if (CodegenAccess.skipMasked(iter, masked, binding.idx)) {
+            return NOT_SET;
+        }
         if (binding.valueCanReuse) {
             CodegenAccess.setExistingObject(iter, binding.field.get(obj));
         }
-        return decodeBinding(iter, binding);
+        return binding.decoder.decode(iter);
     }
 
     private Map<String, Object> onUnknownProperty(JsonIterator iter, Slice fieldName, Map<String, Object> extra) throws IOException {
@@ -373,11 +385,8 @@ class ReflectionObjectDecoder {
 
     private List<String> collectMissingFields(long tracker) {
         List<String> missingFields = new ArrayList<String>();
-        for (Binding binding : allBindings.values()) {
-            if (binding.asMissingWhenNotPresent) {
-                long mask = binding.mask;
-                CodegenAccess.addMissingField(missingFields, tracker, mask, binding.name);
-            }
+        for (Binding binding : requiredBindings) {
+            CodegenAccess.addMissingField(missingFields, tracker, binding.mask, binding.name);
         }
         return missingFields;
     }
@@ -392,15 +401,54 @@ class ReflectionObjectDecoder {
         }
     }
 
-    private Object createNewObject(JsonIterator iter, Object[] temp) throws Exception {
-        if (iter.tempObjects == null) {
-            iter.tempObjects = new HashMap<String, Object>();
+    private static synchronized int takeTempSlot(ReflectionObjectDecoder decoder) {
+        TempSlotReference collected;
+        while ((collected = (TempSlotReference) collectedDecoders.poll()) != null) {
+            tempSlotReferences.remove(collected);
+            freeTempSlots.add(collected.slot);
+        }
+        int slot;
+        if (freeTempSlots.isEmpty()) {
+            slot = nextTempSlot;
+            nextTempSlot += 2;
+        } else {
+            slot = freeTempSlots.removeFirst();
         }
-        Object[] ctorArgs = (Object[]) iter.tempObjects.get(ctorArgsCacheKey);
-        if (ctorArgs == null) {
-            ctorArgs = new Object[desc.ctor.parameters.size()];
-            iter.tempObjects.put(ctorArgsCacheKey, ctorArgs);
+        tempSlotReferences.add(new TempSlotReference(decoder, slot));
+        return slot;
+    }
+
+    private static class TempSlotReference extends WeakReference<ReflectionObjectDecoder> {
+
+        private final int slot;
+
+        private TempSlotReference(ReflectionObjectDecoder decoder, int slot) {
+            super(decoder, collectedDecoders);
+            this.slot = slot;
         }
+    }
+
+    private static Object[] tempObject(JsonIterator iter, int slot, int size) {
+        Object[][] tempObjects = iter.tempObjects;
+        if (tempObjects == null || slot >= tempObjects.length) {
+            // up to the slot of this decoder, not the slots of every decoder created so far
+            Object[][] grown = new Object[slot + 1][];
+            if (tempObjects != null) {
+                System.arraycopy(tempObjects, 0, grown, 0, tempObjects.length);
+            }
+            iter.tempObjects = tempObjects = grown;
+        }
+        Object[] temp = tempObjects[slot];
+        // the slot might have been used by a collected decoder of another size
+        if (temp == null || temp.length != size) {
+            temp = new Object[size];
+            tempObjects[slot] = temp;
+        }
+        return temp;
+    }
+
+    private Object createNewObject(JsonIterator iter, Object[] temp) throws Exception {
+        Object[] ctorArgs = tempObject(iter, tempSlot + 1, desc.ctor.parameters.size());
         Arrays.fill(ctorArgs, null);
         for (int i = 0; i < desc.ctor.parameters.size(); i++) {
             Object arg = temp[desc.ctor.parameters.get(i).idx];
@@ -421,4 +469,65 @@ class ReflectionObjectDecoder {
             return desc.ctor.ctor.newInstance(args);
         }
     }
+
+    // open addressing over the bytes of field names, looked up without copying or hashing the slice into a key
+    private static class FieldTable {
+
+        private final byte[][] names;
+        private final Binding[] bindings;
+        private final int mask;
+
+        FieldTable(Map<String, Binding> allBindings) {
+            int capacity = 4;
+            while (capacity < allBindings.size() * 2) {
+                capacity <<= 1;
+            }
+            names = new byte[capacity][];
+            bindings = new Binding[capacity];
+            mask = capacity - 1;
+            for (Map.Entry<String, Binding> entry : allBindings.entrySet()) {
+                byte[] name = CodegenImplObjectHash.getBytes(entry.getKey());
+                int i = hash(name, 0, name.length) & mask;
+                while (names[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                names[i] = name;
+                bindings[i] = entry.getValue();
+            }
+        }
+
+        Binding get(Slice field) {
+            byte[] data = field.data();
+            int head = field.head();
+            int len = field.len();
+            int i = hash(data, head, len) & mask;
+            for (byte[] name = names[i]; name != null; name = names[i]) {
+                if (matches(name, data, head, len)) {
+                    return bindings[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        private static int hash(byte[] data, int head, int len) {
+            int hash = len;
+            for (int i = head; i < head + len; i++) {
+                hash = 31 * hash + data[i];
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean matches(byte[] name, byte[] data, int head, int len) {
+            if (name.length != len) {
+                return false;
+            }
+            for (int i = 0; i < len; i++) {
+                if (name[i] != data[head + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
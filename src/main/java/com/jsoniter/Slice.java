@@ -1,11 +1,15 @@
 package com.jsoniter;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 public class Slice {
 
     private byte[] data;
     private int head;
     private int tail;
     private int hash;
+    private ByteBuffer words;
 
     public Slice(byte[] data, int head, int tail) {
         this.data = data;
@@ -24,6 +28,26 @@ public class Slice {
         return data[head + pos];
     }
 
+    // little endian, lets generated code compare field names 8 or 4 bytes at a time,
+    // the byte buffer reads the word with one load where the platform allows unaligned access
+    public final long longAt(int pos) {
+        return words().getLong(head + pos);
+    }
+
+    public final int intAt(int pos) {
+        return words().getInt(head + pos);
+    }
+
+    // the slice is mostly reset to the same buffer of the iterator, the view is kept until the data changes
+    private ByteBuffer words() {
+        ByteBuffer words = this.words;
+        if (words == null || words.array() != data) {
+            words = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            this.words = words;
+        }
+        return words;
+    }
+
     public final int len() {
         return tail - head;
     }
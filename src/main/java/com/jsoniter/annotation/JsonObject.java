@@ -1,5 +1,8 @@
 package com.jsoniter.annotation;
 
+import com.jsoniter.DecodingMode;
+import com.jsoniter.output.EncodingMode;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -25,4 +28,16 @@ public @interface JsonObject {
      * if @JsonExtraProperties not defined, it will be treated as error
      */
     boolean asExtraForUnknownProperties() default false;
+
+    /**
+     * @return mode to decode this class in, instead of the global mode, at most one.
+     * mode registered by JsoniterSpi.registerDecodingMode takes precedence
+     */
+    DecodingMode[] decodingMode() default {};
+
+    /**
+     * @return mode to encode this class in, instead of the global mode, at most one.
+     * mode registered by JsoniterSpi.registerEncodingMode takes precedence
+     */
+    EncodingMode[] encodingMode() default {};
 }
@@ -28,6 +28,12 @@ public class JsoniterAnnotationSupport extends EmptyExtension {
             if (jsonObject.asExtraForUnknownProperties()) {
                 desc.asExtraForUnknownProperties = true;
             }
+            if (jsonObject.decodingMode().length > 0) {
+                desc.decodingMode = jsonObject.decodingMode()[0];
+            }
+            if (jsonObject.encodingMode().length > 0) {
+                desc.encodingMode = jsonObject.encodingMode()[0];
+            }
             for (String fieldName : jsonObject.unknownPropertiesWhitelist()) {
                 Binding binding = new Binding(desc.clazz, desc.lookup, Object.class);
                 binding.name = fieldName;
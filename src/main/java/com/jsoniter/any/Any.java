@@ -9,6 +9,7 @@ import com.jsoniter.spi.Encoder;
 import com.jsoniter.spi.TypeLiteral;
 
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.util.*;
 
 public abstract class Any implements Iterable<Any> {
@@ -59,6 +60,117 @@ public abstract class Any implements Iterable<Any> {
         Any value();
     }
 
+    /**
+     * object field name encoded once, lazy objects compare it with the raw field names,
+     * so repeated any.get(KEY) neither encodes the name nor decodes the fields before it
+     */
+    public final static class Key {
+
+        final String name;
+        final byte[] bytes;
+        private final int hash;
+
+        private Key(String name) {
+            this.name = name;
+            try {
+                this.bytes = name.getBytes("UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new JsonException(e);
+            }
+            this.hash = name.hashCode();
+        }
+
+        public static Key of(String name) {
+            return new Key(name);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        // the field name is not escaped in the buffer
+        final boolean matches(byte[] data, int head, int tail) {
+            if (tail - head != bytes.length) {
+                return false;
+            }
+            for (int i = 0; i < bytes.length; i++) {
+                if (data[head + i] != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * read the next field name and the colon after it, only escaped field names are decoded
+         *
+         * @param iter positioned before the field name, holding the whole name in its buffer
+         * @param keys the names to look for
+         * @return the index of the key matching the field name, -1 if none
+         * @throws IOException if I/O went wrong
+         */
+        public static int matchField(JsonIterator iter, Key[] keys) throws IOException {
+            if (com.jsoniter.CodegenAccess.nextToken(iter) != '"') {
+                throw iter.reportError("matchField", "expect \"");
+            }
+            byte[] buf = com.jsoniter.CodegenAccess.buf(iter);
+            int start = com.jsoniter.CodegenAccess.head(iter);
+            int tail = com.jsoniter.CodegenAccess.tail(iter);
+            int matched = -1;
+            for (int i = start; ; i++) {
+                if (i == tail) {
+                    throw iter.reportError("matchField", "incomplete field name");
+                }
+                byte c = buf[i];
+                if (c == '\\') {
+                    com.jsoniter.CodegenAccess.unreadByte(iter);
+                    String field = iter.readString();
+                    for (int j = 0; j < keys.length; j++) {
+                        if (keys[j].name.equals(field)) {
+                            matched = j;
+                            break;
+                        }
+                    }
+                    break;
+                }
+                if (c == '"') {
+                    for (int j = 0; j < keys.length; j++) {
+                        if (keys[j].matches(buf, start, i)) {
+                            matched = j;
+                            break;
+                        }
+                    }
+                    com.jsoniter.CodegenAccess.skipFixedBytes(iter, i + 1 - start);
+                    break;
+                }
+            }
+            if (com.jsoniter.CodegenAccess.nextToken(iter) != ':') {
+                throw iter.reportError("matchField", "expect :");
+            }
+            return matched;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && name.equals(((Key) o).name);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    // map backed objects are keyed by the field name
+    protected static Object nameOf(Object key) {
+        return key instanceof Key ? ((Key) key).name : key;
+    }
+
     protected final static Set<String> EMPTY_KEYS = Collections.unmodifiableSet(new HashSet<String>());
     protected final static EntryIterator EMPTY_ENTRIES_ITERATOR = new EntryIterator() {
         @Override
@@ -194,6 +306,25 @@ public abstract class Any implements Iterable<Any> {
         return EMPTY_ENTRIES_ITERATOR;
     }
 
+    /**
+     * iterate the elements once, lazy arrays parse one element at a time without caching it,
+     * so a scan over a huge array does not keep the parsed elements alive
+     *
+     * @return elements, not cached unless they were before
+     */
+    public Iterator<Any> stream() {
+        return iterator();
+    }
+
+    /**
+     * iterate the fields once, lazy objects parse one field at a time without caching it
+     *
+     * @return fields, not cached unless they were before
+     */
+    public EntryIterator streamEntries() {
+        return entries();
+    }
+
     public Any get(int index) {
         return new NotFoundAny(index, object());
     }
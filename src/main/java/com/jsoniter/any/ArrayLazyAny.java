@@ -9,6 +9,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 class ArrayLazyAny extends LazyAny {
 
@@ -77,6 +78,14 @@ class ArrayLazyAny extends LazyAny {
         }
     }
 
+    @Override
+    public Iterator<Any> stream() {
+        if (lastParsedPos == tail) {
+            return cache.iterator();
+        }
+        return new StreamIterator();
+    }
+
     @Override
     public Any get(int index) {
         try {
@@ -216,6 +225,61 @@ class ArrayLazyAny extends LazyAny {
         }
     }
 
+    // parses from its own position, leaving the cache alone
+    private class StreamIterator implements Iterator<Any> {
+
+        private int pos = head;
+        private Any next;
+
+        public StreamIterator() {
+            next = readNext();
+        }
+
+        private Any readNext() {
+            if (pos == tail) {
+                return null;
+            }
+            try {
+                JsonIterator iter = JsonIterator.tlsIter.get();
+                iter.reset(data, pos, tail);
+                if (pos == head) {
+                    if (!CodegenAccess.readArrayStart(iter)) {
+                        pos = tail;
+                        return null;
+                    }
+                } else if (CodegenAccess.nextToken(iter) != ',') {
+                    pos = tail;
+                    return null;
+                }
+                Any element = iter.readAny();
+                pos = CodegenAccess.head(iter);
+                return element;
+            } catch (IOException e) {
+                throw new JsonException(e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Any next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Any current = next;
+            next = readNext();
+            return current;
+        }
+    }
+
     @Override
     public void writeTo(JsonStream stream) throws IOException {
         if (lastParsedPos == head) {
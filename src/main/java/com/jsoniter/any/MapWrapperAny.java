@@ -114,6 +114,7 @@ class MapWrapperAny extends Any {
     }
 
     private Any fillCacheUntil(Object target) {
+        target = nameOf(target);
         if (cache == null) {
             cache = new HashMap<String, Any>();
         }
@@ -74,7 +74,7 @@ class ObjectAny extends Any {
 
     @Override
     public Any get(Object key) {
-        Any element = val.get(key);
+        Any element = val.get(nameOf(key));
         if (element == null) {
             return new NotFoundAny(key, object());
         }
@@ -97,7 +97,7 @@ class ObjectAny extends Any {
             }
             return Any.rewrap(result);
         }
-        Any element = val.get(key);
+        Any element = val.get(nameOf(key));
         if (element == null) {
             return new NotFoundAny(keys, idx, object());
         }
@@ -7,6 +7,7 @@ import com.jsoniter.spi.TypeLiteral;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -15,6 +16,10 @@ class ObjectLazyAny extends LazyAny {
 
     private final static TypeLiteral<Map<String, Any>> typeLiteral = new TypeLiteral<Map<String, Any>>(){};
     private Map<String, Any> cache;
+    // found by get(key) after lastParsedPos
+    private Map<String, Any> ahead;
+    // looked for by get(key) and not found after lastParsedPos, so not in the object at all
+    private Set<String> missing;
     private int lastParsedPos;
 
     public ObjectLazyAny(byte[] data, int head, int tail) {
@@ -108,48 +113,76 @@ class ObjectLazyAny extends LazyAny {
     }
 
     private Any fillCacheUntil(Object target) {
-        if (lastParsedPos == tail) {
-            return cache.get(target);
+        Object name = nameOf(target);
+        if (cache != null) {
+            Any value = cache.get(name);
+            if (value != null) {
+                return value;
+            }
         }
-        if (cache == null) {
-            cache = new HashMap<String, Any>(4);
+        if (lastParsedPos == tail || !(name instanceof String)) {
+            return null;
         }
-        Any value = cache.get(target);
-        if (value != null) {
-            return value;
+        if (ahead != null) {
+            Any value = ahead.get(name);
+            if (value != null) {
+                return value;
+            }
         }
+        if (missing != null && missing.contains(name)) {
+            return null;
+        }
+        return findAhead(target instanceof Key ? (Key) target : Key.of((String) name));
+    }
+
+    // look for the field after the parsed ones by its raw bytes, skipping the others without caching them,
+    // the field found or missed is remembered, so that each key is looked for once
+    private Any findAhead(Key key) {
         try {
             JsonIterator iter = JsonIterator.tlsIter.get();
             iter.reset(data, lastParsedPos, tail);
+            Key[] keys = {key};
             if (lastParsedPos == head) {
                 if (!CodegenAccess.readObjectStart(iter)) {
                     lastParsedPos = tail;
                     return null;
                 }
-                String field = CodegenAccess.readObjectFieldAsString(iter);
-                value = iter.readAny();
-                cache.put(field, value);
-                if (field.hashCode() == target.hashCode() && field.equals(target)) {
-                    lastParsedPos = CodegenAccess.head(iter);
-                    return value;
-                }
+            } else if (CodegenAccess.nextToken(iter) != ',') {
+                return null;
             }
-            while (CodegenAccess.nextToken(iter) == ',') {
-                String field = CodegenAccess.readObjectFieldAsString(iter);
-                value = iter.readAny();
-                cache.put(field, value);
-                if (field.hashCode() == target.hashCode() && field.equals(target)) {
-                    lastParsedPos = CodegenAccess.head(iter);
+            do {
+                if (Key.matchField(iter, keys) == 0) {
+                    Any value = iter.readAny();
+                    if (ahead == null) {
+                        ahead = new HashMap<String, Any>(4);
+                    }
+                    ahead.put(key.name, value);
                     return value;
                 }
+                iter.skip();
+            } while (CodegenAccess.nextToken(iter) == ',');
+            if (missing == null) {
+                missing = new HashSet<String>(4);
             }
-            lastParsedPos = tail;
+            missing.add(key.name);
             return null;
         } catch (IOException e) {
             throw new JsonException(e);
         }
     }
 
+    // the value found ahead keeps its identity once the fields are parsed in order
+    private Any readValue(JsonIterator iter, String field) throws IOException {
+        if (ahead != null) {
+            Any value = ahead.remove(field);
+            if (value != null) {
+                iter.skip();
+                return value;
+            }
+        }
+        return iter.readAny();
+    }
+
     private void fillCache() {
         if (lastParsedPos == tail) {
             return;
@@ -166,13 +199,15 @@ class ObjectLazyAny extends LazyAny {
                     return;
                 }
                 String field = CodegenAccess.readObjectFieldAsString(iter);
-                cache.put(field, iter.readAny());
+                cache.put(field, readValue(iter, field));
             }
             while (CodegenAccess.nextToken(iter) == ',') {
                 String field = CodegenAccess.readObjectFieldAsString(iter);
-                cache.put(field, iter.readAny());
+                cache.put(field, readValue(iter, field));
             }
             lastParsedPos = tail;
+            ahead = null;
+            missing = null;
         } catch (IOException e) {
             throw new JsonException(e);
         }
@@ -195,26 +230,10 @@ class ObjectLazyAny extends LazyAny {
                 cache = new HashMap<String, Any>();
             }
             mapIter = new HashMap<String, Any>(cache).entrySet().iterator();
-            try {
-                if (lastParsedPos == head) {
-                    JsonIterator iter = JsonIterator.tlsIter.get();
-                    iter.reset(data, lastParsedPos, tail);
-                    if (!CodegenAccess.readObjectStart(iter)) {
-                        lastParsedPos = tail;
-                    } else {
-                        lastParsedPos = CodegenAccess.head(iter);
-                    }
-                }
-            } catch (IOException e) {
-                throw new JsonException(e);
-            }
         }
 
         @Override
         public boolean next() {
-            if (lastParsedPos == tail) {
-                return false;
-            }
             if (mapIter != null) {
                 if (mapIter.hasNext()) {
                     Map.Entry<String, Any> entry = mapIter.next();
@@ -225,17 +244,77 @@ class ObjectLazyAny extends LazyAny {
                     mapIter = null;
                 }
             }
+            if (lastParsedPos == tail) {
+                return false;
+            }
             try {
                 JsonIterator iter = JsonIterator.tlsIter.get();
                 iter.reset(data, lastParsedPos, tail);
+                // same position as fillCache, so that they can continue each other
+                if (!readFieldStart(iter, lastParsedPos)) {
+                    lastParsedPos = tail;
+                    ahead = null;
+                    return false;
+                }
                 key = CodegenAccess.readObjectFieldAsString(iter);
-                value = iter.readAny();
+                value = readValue(iter, key);
                 cache.put(key, value);
-                if (CodegenAccess.nextToken(iter) == ',') {
-                    lastParsedPos = CodegenAccess.head(iter);
-                } else {
-                    lastParsedPos = tail;
+                lastParsedPos = CodegenAccess.head(iter);
+            } catch (IOException e) {
+                throw new JsonException(e);
+            }
+            return true;
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public Any value() {
+            return value;
+        }
+    }
+
+    // { before the first field, otherwise , before the next one
+    private boolean readFieldStart(JsonIterator iter, int pos) throws IOException {
+        if (pos == head) {
+            return CodegenAccess.readObjectStart(iter);
+        }
+        return CodegenAccess.nextToken(iter) == ',';
+    }
+
+    @Override
+    public EntryIterator streamEntries() {
+        if (lastParsedPos == tail) {
+            return entries();
+        }
+        return new StreamIterator();
+    }
+
+    // parses from its own position, leaving the cache alone
+    private class StreamIterator implements EntryIterator {
+
+        private int pos = head;
+        private String key;
+        private Any value;
+
+        @Override
+        public boolean next() {
+            if (pos == tail) {
+                return false;
+            }
+            try {
+                JsonIterator iter = JsonIterator.tlsIter.get();
+                iter.reset(data, pos, tail);
+                if (!readFieldStart(iter, pos)) {
+                    pos = tail;
+                    return false;
                 }
+                key = CodegenAccess.readObjectFieldAsString(iter);
+                value = iter.readAny();
+                pos = CodegenAccess.head(iter);
             } catch (IOException e) {
                 throw new JsonException(e);
             }
@@ -255,7 +334,7 @@ class ObjectLazyAny extends LazyAny {
 
     @Override
     public void writeTo(JsonStream stream) throws IOException {
-        if (lastParsedPos == head) {
+        if (lastParsedPos == head && ahead == null) {
             super.writeTo(stream);
         } else {
             // there might be modification
@@ -266,7 +345,7 @@ class ObjectLazyAny extends LazyAny {
 
     @Override
     public String toString() {
-        if (lastParsedPos == head) {
+        if (lastParsedPos == head && ahead == null) {
             return super.toString();
         } else {
             fillCache();
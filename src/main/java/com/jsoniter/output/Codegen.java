@@ -11,14 +11,38 @@ import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 class Codegen {
 
     static EncodingMode mode = EncodingMode.REFLECTION_MODE;
     static StaticCodegenTarget isDoingStaticCodegen;
-    // only read/write when generating code with synchronized protection
-    private final static Map<String, CodegenResult> generatedSources = new HashMap<String, CodegenResult>();
-    private volatile static Map<String, Encoder> reflectionEncoders = new HashMap<String, Encoder>();
+    static int tieredThreshold = 1000;
+    // threads are created lazily, daemon threads do not block exit
+    private final static ExecutorService backgroundCodegen = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "jsoniter-encoder-codegen");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    // sources of defined classes, generated code can call their encode_ directly
+    private final static Map<String, CodegenResult> generatedSources = new ConcurrentHashMap<String, CodegenResult>();
+    // class name to the times it was defined, an encoder dropped is generated again as another class
+    private final static Map<String, Integer> definedClassNames = new ConcurrentHashMap<String, Integer>();
+    private final static Map<String, Encoder> reflectionEncoders = new ConcurrentHashMap<String, Encoder>();
+    // the encoder being created by the thread
+    private final static ThreadLocal<Dependent> dependent = new ThreadLocal<Dependent>();
+    // cache key to the cache keys of the encoders depending on it, and the other way around,
+    // replacing an encoder drops the encoders that linked to it, so that they are created again
+    private final static ConcurrentHashMap<String, Set<String>> dependents = new ConcurrentHashMap<String, Set<String>>();
+    private final static ConcurrentHashMap<String, Set<String>> dependencies = new ConcurrentHashMap<String, Set<String>>();
+    // linked by classes initialized before the encoder of the cache key is registered
+    private final static ConcurrentHashMap<String, LinkedEncoder> cells = new ConcurrentHashMap<String, LinkedEncoder>();
 
     static {
         String envMode = System.getenv("JSONITER_ENCODING_MODE");
@@ -56,11 +80,22 @@ class Codegen {
                 clazz = (Class) type;
             }
             encoder = ReflectionEncoderFactory.create(clazz, typeArgs);
-            HashMap<String, Encoder> copy = new HashMap<String, Encoder>(reflectionEncoders);
-            copy.put(cacheKey, encoder);
-            reflectionEncoders = copy;
+            reflectionEncoders.put(cacheKey, encoder);
+            return encoder;
+        }
+    }
+
+    public static Encoder getEncoder(Class clazz) {
+        Encoder encoder = JsoniterSpi.getClassEncoder(clazz);
+        if (encoder != null) {
             return encoder;
         }
+        String cacheKey = TypeLiteral.create(clazz).getEncoderCacheKey();
+        encoder = getEncoder(cacheKey, clazz);
+        if (encoder != null) {
+            JsoniterSpi.addClassEncoder(clazz, cacheKey, encoder);
+        }
+        return encoder;
     }
 
     public static Encoder getEncoder(String cacheKey, Type type) {
@@ -71,7 +106,9 @@ class Codegen {
         return gen(cacheKey, type);
     }
 
-    private static synchronized Encoder gen(final String cacheKey, Type type) {
+    // not synchronized as a whole, so that types are generated in parallel (for example by JsoniterSpi.warmUp),
+    // the lock only guards claiming the cache key with the placeholder
+    private static Encoder gen(final String cacheKey, Type type) {
         Encoder encoder = JsoniterSpi.getEncoder(cacheKey);
         if (encoder != null) {
             return encoder;
@@ -89,7 +126,6 @@ class Codegen {
             JsoniterSpi.addNewEncoder(cacheKey, encoder);
             return encoder;
         }
-        addPlaceholderEncoderToSupportRecursiveStructure(cacheKey);
         Type[] typeArgs = new Type[0];
         Class clazz;
         if (type instanceof ParameterizedType) {
@@ -99,6 +135,128 @@ class Codegen {
         } else {
             clazz = (Class) type;
         }
+        // supports recursive structure, and makes other threads wait for the encoder instead of generating it again
+        LinkedEncoder placeholder = new LinkedEncoder(cacheKey, type, Thread.currentThread());
+        synchronized (Codegen.class) {
+            encoder = JsoniterSpi.getEncoder(cacheKey);
+            if (encoder != null) {
+                return encoder;
+            }
+            JsoniterSpi.addNewEncoder(cacheKey, placeholder);
+        }
+        Dependent outer = dependent.get();
+        Dependent current = new Dependent(cacheKey);
+        dependent.set(current);
+        try {
+            encoder = gen(cacheKey, type, clazz, typeArgs);
+            addDependencies(current);
+            return encoder;
+        } catch (RuntimeException e) {
+            if (JsoniterSpi.getEncoder(cacheKey) == placeholder) {
+                // the next use tries again
+                JsoniterSpi.addNewEncoder(cacheKey, null);
+            }
+            throw e;
+        } finally {
+            dependent.set(outer);
+            placeholder.generated();
+        }
+    }
+
+    // the encoder being created by the thread depends on the encoder of the cache key
+    static void dependOn(String cacheKey) {
+        Dependent current = dependent.get();
+        if (current != null && !cacheKey.equals(current.cacheKey)) {
+            current.dependencies.add(cacheKey);
+        }
+    }
+
+    private static void addDependencies(Dependent dependent) {
+        for (String dependency : dependent.dependencies) {
+            addTo(dependents, dependency, dependent.cacheKey);
+            addTo(dependencies, dependent.cacheKey, dependency);
+        }
+    }
+
+    private static void addTo(ConcurrentHashMap<String, Set<String>> map, String key, String value) {
+        Set<String> values = map.get(key);
+        if (values == null) {
+            values = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            Set<String> existing = map.putIfAbsent(key, values);
+            if (existing != null) {
+                values = existing;
+            }
+        }
+        values.add(value);
+    }
+
+    // the encoder of the cache key is replaced or removed
+    static void encoderReplaced(String cacheKey, Encoder old, Encoder encoder) {
+        LinkedEncoder cell = cells.get(cacheKey);
+        if (cell != null) {
+            cell.unresolve();
+        }
+        if (old instanceof LinkedEncoder) {
+            // the placeholder is replaced by the encoder generated, or removed as the generation failed
+            return;
+        }
+        if (old instanceof TieredEncoder && ((TieredEncoder) old).promoted == encoder) {
+            return;
+        }
+        generatedSources.remove(cacheKey);
+        Set<String> linked = dependencies.remove(cacheKey);
+        if (linked != null) {
+            for (String dependency : linked) {
+                Set<String> linking = dependents.get(dependency);
+                if (linking != null) {
+                    linking.remove(cacheKey);
+                }
+            }
+        }
+        dropDependents(cacheKey);
+    }
+
+    private static void dropDependents(String cacheKey) {
+        Set<String> linking = dependents.remove(cacheKey);
+        if (linking != null) {
+            for (String dependent : linking) {
+                // drops the encoders depending on the dependent in turn
+                JsoniterSpi.addNewEncoder(dependent, null);
+            }
+        }
+    }
+
+    // the encoder of the cache key if registered, otherwise a cell resolving it on first use
+    static Encoder linkedEncoder(String cacheKey) {
+        dependOn(cacheKey);
+        Encoder encoder = JsoniterSpi.getEncoder(cacheKey);
+        if (encoder != null) {
+            return encoder;
+        }
+        LinkedEncoder cell = cells.get(cacheKey);
+        if (cell == null) {
+            cell = new LinkedEncoder(cacheKey, null, null);
+            LinkedEncoder existing = cells.putIfAbsent(cacheKey, cell);
+            if (existing != null) {
+                cell = existing;
+            }
+        }
+        return cell;
+    }
+
+    private static class Dependent {
+
+        private final String cacheKey;
+        private final Set<String> dependencies = new HashSet<String>();
+
+        private Dependent(String cacheKey) {
+            this.cacheKey = cacheKey;
+        }
+    }
+
+    private static Encoder gen(String cacheKey, Type type, Class clazz, Type[] typeArgs) {
+        Encoder encoder;
+        EncodingMode mode = chooseMode(clazz);
         if (mode == EncodingMode.REFLECTION_MODE) {
             encoder = ReflectionEncoderFactory.create(clazz, typeArgs);
             JsoniterSpi.addNewEncoder(cacheKey, encoder);
@@ -114,17 +272,62 @@ class Codegen {
                     throw new JsonException("static gen should provide the encoder we need, but failed to create the encoder", e);
                 }
             }
+            if (mode == EncodingMode.TIERED_MODE) {
+                encoder = new TieredEncoder(cacheKey, type, clazz, typeArgs,
+                        ReflectionEncoderFactory.create(clazz, typeArgs));
+                JsoniterSpi.addNewEncoder(cacheKey, encoder);
+                return encoder;
+            }
+        }
+        encoder = genDynamic(cacheKey, type, clazz, typeArgs);
+        JsoniterSpi.addNewEncoder(cacheKey, encoder);
+        return encoder;
+    }
+
+    // mode registered for the class or its package, then mode of @JsonObject, then the global mode
+    private static EncodingMode chooseMode(Class clazz) {
+        EncodingMode registeredMode = JsoniterSpi.getEncodingMode(clazz);
+        if (registeredMode != null) {
+            return registeredMode;
+        }
+        if (!clazz.isArray() && !clazz.isEnum()
+                && !Map.class.isAssignableFrom(clazz) && !Collection.class.isAssignableFrom(clazz)) {
+            EncodingMode annotatedMode = JsoniterSpi.getEncodingClassDescriptor(clazz, false).encodingMode;
+            if (annotatedMode != null) {
+                return annotatedMode;
+            }
         }
+        return mode;
+    }
+
+    // the encoder generated is registered by the caller
+    private static Encoder genDynamic(String cacheKey, Type type, Class clazz, Type[] typeArgs) {
+        Dependent outer = dependent.get();
+        Dependent current = new Dependent(cacheKey);
+        dependent.set(current);
+        try {
+            Encoder encoder = define(cacheKey, type, clazz, typeArgs);
+            addDependencies(current);
+            return encoder;
+        } finally {
+            // generating a dependency generates another class in between
+            dependent.set(outer);
+        }
+    }
+
+    private static Encoder define(String cacheKey, Type type, Class clazz, Type[] typeArgs) {
+        Encoder encoder = null;
         clazz = chooseAccessibleSuper(clazz);
         CodegenResult source = genSource(cacheKey, clazz, typeArgs);
+        source.className = newClassName(cacheKey);
         try {
-            generatedSources.put(cacheKey, source);
             if (isDoingStaticCodegen == null) {
-                encoder = DynamicCodegen.gen(clazz, cacheKey, source);
+                encoder = DynamicCodegen.gen(clazz, typeArgs, source.className, source);
             } else {
                 staticGen(clazz, cacheKey, source);
             }
-            JsoniterSpi.addNewEncoder(cacheKey, encoder);
+            // only once defined, classes generated by other threads might call it
+            generatedSources.put(cacheKey, source);
             return encoder;
         } catch (Exception e) {
             String msg = "failed to generate encoder for: " + type + " with " + Arrays.toString(typeArgs) + ", exception: " + e;
@@ -133,20 +336,150 @@ class Codegen {
         }
     }
 
-    private static void addPlaceholderEncoderToSupportRecursiveStructure(final String cacheKey) {
-        JsoniterSpi.addNewEncoder(cacheKey, new Encoder() {
-            @Override
-            public void encode(Object obj, JsonStream stream) throws IOException {
-                JsoniterSpi.getEncoder(cacheKey).encode(obj, stream);
-            }
+    // the loader still defines the class generated before for the name
+    private static String newClassName(String name) {
+        Integer defined = definedClassNames.get(name);
+        definedClassNames.put(name, defined == null ? 1 : defined + 1);
+        return defined == null ? name : name + "_" + defined;
+    }
 
+    static void promoteInBackground(final TieredEncoder tiered) {
+        backgroundCodegen.execute(new Runnable() {
             @Override
-            public Any wrap(Object obj) {
-                return JsoniterSpi.getEncoder(cacheKey).wrap(obj);
+            public void run() {
+                promote(tiered);
             }
         });
     }
 
+    static synchronized void promote(TieredEncoder tiered) {
+        if (JsoniterSpi.getEncoder(tiered.cacheKey) != tiered) {
+            // replaced by registered encoder
+            return;
+        }
+        try {
+            tiered.promoted = genDynamic(tiered.cacheKey, tiered.type, tiered.clazz, tiered.typeArgs);
+        } catch (Exception e) {
+            // keep encoding by reflection
+            return;
+        }
+        JsoniterSpi.addNewEncoder(tiered.cacheKey, tiered.promoted);
+    }
+
+    // encode by reflection until the type is hot, then by the encoder generated in background
+    static class TieredEncoder implements Encoder {
+
+        private final String cacheKey;
+        private final Type type;
+        private final Class clazz;
+        private final Type[] typeArgs;
+        private final Encoder reflectionEncoder;
+        private volatile Encoder promoted;
+        // not synchronized, only need to be roughly right
+        private int encoded;
+        private boolean scheduled;
+
+        TieredEncoder(String cacheKey, Type type, Class clazz, Type[] typeArgs, Encoder reflectionEncoder) {
+            this.cacheKey = cacheKey;
+            this.type = type;
+            this.clazz = clazz;
+            this.typeArgs = typeArgs;
+            this.reflectionEncoder = reflectionEncoder;
+        }
+
+        @Override
+        public void encode(Object obj, JsonStream stream) throws IOException {
+            Encoder encoder = promoted;
+            if (encoder != null) {
+                encoder.encode(obj, stream);
+                return;
+            }
+            if (++encoded >= tieredThreshold && !scheduled) {
+                scheduled = true;
+                promoteInBackground(this);
+            }
+            reflectionEncoder.encode(obj, stream);
+        }
+
+        @Override
+        public Any wrap(Object obj) {
+            Encoder encoder = promoted;
+            return encoder == null ? reflectionEncoder.wrap(obj) : encoder.wrap(obj);
+        }
+    }
+
+    // the placeholder of an encoder being generated, linked by recursive structures,
+    // or the cell linked by a class initialized before the encoder is registered, the encoder is resolved on first use
+    static class LinkedEncoder implements Encoder {
+
+        private final String cacheKey;
+        // only known by the placeholder
+        private final Type type;
+        // the thread generating the encoder the placeholder stands for
+        private Thread generating;
+        private volatile Encoder resolved;
+
+        private LinkedEncoder(String cacheKey, Type type, Thread generating) {
+            this.cacheKey = cacheKey;
+            this.type = type;
+            this.generating = generating;
+        }
+
+        private Encoder target() {
+            Encoder encoder = resolved;
+            if (encoder == null) {
+                encoder = lookUp();
+                if (encoder == this) {
+                    awaitGenerated();
+                    encoder = lookUp();
+                }
+                if (encoder == this || encoder == null) {
+                    throw new JsonException("encoder of " + cacheKey + " is not generated yet");
+                }
+                resolved = encoder;
+            }
+            return encoder;
+        }
+
+        private Encoder lookUp() {
+            return type == null ? JsoniterSpi.getEncoder(cacheKey) : getEncoder(cacheKey, type);
+        }
+
+        // the cell resolves the encoder registered next
+        private void unresolve() {
+            resolved = null;
+        }
+
+        private synchronized void awaitGenerated() {
+            if (generating == Thread.currentThread()) {
+                throw new JsonException("encoder of " + cacheKey + " is used while being generated");
+            }
+            while (generating != null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JsonException("interrupted while waiting for encoder of " + cacheKey, e);
+                }
+            }
+        }
+
+        private synchronized void generated() {
+            generating = null;
+            notifyAll();
+        }
+
+        @Override
+        public void encode(Object obj, JsonStream stream) throws IOException {
+            target().encode(obj, stream);
+        }
+
+        @Override
+        public Any wrap(Object obj) {
+            return target().wrap(obj);
+        }
+    }
+
     private static Class chooseAccessibleSuper(Class clazz) {
         if (Modifier.isPublic(clazz.getModifiers())) {
             return clazz;
@@ -158,6 +491,18 @@ class Codegen {
         return generatedSources.get(cacheKey);
     }
 
+    // the encoders are no longer registered, the classes might be defined again by another loader
+    static void unloadCodecs(Set<String> cacheKeys) {
+        generatedSources.keySet().removeAll(cacheKeys);
+        reflectionEncoders.keySet().removeAll(cacheKeys);
+        definedClassNames.keySet().removeAll(cacheKeys);
+        cells.keySet().removeAll(cacheKeys);
+        dependencies.keySet().removeAll(cacheKeys);
+        for (String cacheKey : cacheKeys) {
+            dropDependents(cacheKey);
+        }
+    }
+
     private static void staticGen(Class clazz, String cacheKey, CodegenResult source) throws IOException {
         createDir(cacheKey);
         String fileName = cacheKey.replace('.', '/') + ".java";
@@ -179,7 +524,14 @@ class Codegen {
         String packageName = cacheKey.substring(0, cacheKey.lastIndexOf('.'));
         writer.write("package " + packageName + ";\n");
         writer.write("public class " + className + " extends com.jsoniter.spi.EmptyEncoder {\n");
+        for (String field : source.fields) {
+            writer.write(field);
+            writer.write("\n");
+        }
         writer.write(source.generateWrapperCode(clazz));
+        for (String helper : source.helpers) {
+            writer.write(helper);
+        }
         writer.write(source.toString());
         writer.write("}\n");
     }
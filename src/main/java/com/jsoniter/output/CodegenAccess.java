@@ -8,6 +8,7 @@ import com.jsoniter.spi.StaticCodegenTarget;
 import com.jsoniter.spi.TypeLiteral;
 
 import java.io.IOException;
+import java.util.Set;
 
 public class CodegenAccess {
     public static void writeVal(String cacheKey, Object obj, JsonStream stream) throws IOException {
@@ -54,10 +55,35 @@ public class CodegenAccess {
         encoder.encodeDouble(obj, stream);
     }
 
+    public static void writeMapKey(String cacheKey, Object mapKey, JsonStream stream) throws IOException {
+        JsoniterSpi.getEncoder(cacheKey).encode(mapKey, stream);
+    }
+
+    // the encoder registered, or a cell resolving it on first use
+    public static Encoder linkEncoder(String cacheKey) {
+        return Codegen.linkedEncoder(cacheKey);
+    }
+
+    public static void encoderReplaced(String cacheKey, Encoder old, Encoder encoder) {
+        Codegen.encoderReplaced(cacheKey, old, encoder);
+    }
+
+    public static Encoder getEncoder(Class clazz) {
+        return Codegen.getEncoder(clazz);
+    }
+
+    public static Encoder getEncoder(TypeLiteral typeLiteral) {
+        return Codegen.getEncoder(typeLiteral.getEncoderCacheKey(), typeLiteral.getType());
+    }
+
     public static void writeStringWithoutQuote(String obj, JsonStream stream) throws IOException {
         StreamImplString.writeStringWithoutQuote(stream, obj);
     }
 
+    public static void unloadCodecs(Set<String> cacheKeys) {
+        Codegen.unloadCodecs(cacheKeys);
+    }
+
     public static void staticGenEncoders(TypeLiteral[] typeLiterals, StaticCodegenTarget staticCodegenTarget) {
         Codegen.staticGenEncoders(typeLiterals, staticCodegenTarget);
     }
@@ -7,9 +7,6 @@ class CodegenImplArray {
 
     public static CodegenResult genArray(String cacheKey, Class clazz) {
         Class compType = clazz.getComponentType();
-        if (compType.isArray()) {
-            throw new IllegalArgumentException("nested array not supported: " + clazz.getCanonicalName());
-        }
         boolean isCollectionValueNullable = true;
         if (cacheKey.endsWith("__value_not_nullable")) {
             isCollectionValueNullable = false;
@@ -19,6 +16,7 @@ class CodegenImplArray {
         }
         CodegenResult ctx = new CodegenResult();
         ctx.append("public static void encode_(java.lang.Object obj, com.jsoniter.output.JsonStream stream) throws java.io.IOException {");
+        CodegenImplNative.genInlineCache(ctx, compType, isCollectionValueNullable);
         ctx.append(String.format("%s[] arr = (%s[])obj;", compType.getCanonicalName(), compType.getCanonicalName()));
         ctx.append("if (arr.length == 0) { return; }");
         ctx.buffer('[');
@@ -77,6 +75,7 @@ class CodegenImplArray {
         }
         CodegenResult ctx = new CodegenResult();
         ctx.append("public static void encode_(java.lang.Object obj, com.jsoniter.output.JsonStream stream) throws java.io.IOException {");
+        CodegenImplNative.genInlineCache(ctx, compType, isCollectionValueNullable);
         ctx.append("java.util.List list = (java.util.List)obj;");
         ctx.append("int size = list.size();");
         ctx.append("if (size == 0) { return; }");
@@ -112,6 +111,7 @@ class CodegenImplArray {
         }
         CodegenResult ctx = new CodegenResult();
         ctx.append("public static void encode_(java.lang.Object obj, com.jsoniter.output.JsonStream stream) throws java.io.IOException {");
+        CodegenImplNative.genInlineCache(ctx, compType, isCollectionValueNullable);
         ctx.append("java.util.Iterator iter = ((java.util.Collection)obj).iterator();");
         ctx.append("if (!iter.hasNext()) { return; }");
         ctx.buffer('[');
@@ -21,18 +21,22 @@ class CodegenImplMap {
                     "can not bind to generic collection without argument types, " +
                             "try syntax like TypeLiteral<Map<String, String>>{}");
         }
+        String writeMapKey = "stream.writeVal((String)entry.getKey());";
         if (keyType != String.class) {
-            throw new IllegalArgumentException("map key must be String");
+            MapKeyEncoders.registerOrGetExisting(keyType);
+            writeMapKey = String.format("com.jsoniter.output.CodegenAccess.writeMapKey(\"%s\", entry.getKey(), stream);",
+                    MapKeyEncoders.getCacheKey(keyType));
         }
         CodegenResult ctx = new CodegenResult();
         ctx.append("public static void encode_(java.lang.Object obj, com.jsoniter.output.JsonStream stream) throws java.io.IOException {");
+        CodegenImplNative.genInlineCache(ctx, valueType, isCollectionValueNullable);
         ctx.append("if (obj == null) { stream.writeNull(); return; }");
         ctx.append("java.util.Map map = (java.util.Map)obj;");
         ctx.append("java.util.Iterator iter = map.entrySet().iterator();");
         ctx.append("if(!iter.hasNext()) { return; }");
         ctx.append("java.util.Map.Entry entry = (java.util.Map.Entry)iter.next();");
         ctx.buffer('{');
-        ctx.append("stream.writeVal((String)entry.getKey());");
+        ctx.append(writeMapKey);
         ctx.buffer(':');
         if (isCollectionValueNullable) {
             ctx.append("if (entry.getValue() == null) { stream.writeNull(); } else {");
@@ -44,7 +48,12 @@ class CodegenImplMap {
         ctx.append("while(iter.hasNext()) {");
         ctx.append("entry = (java.util.Map.Entry)iter.next();");
         ctx.buffer(',');
-        ctx.append("stream.writeObjectField((String)entry.getKey());");
+        if (keyType == String.class) {
+            ctx.append("stream.writeObjectField((String)entry.getKey());");
+        } else {
+            ctx.append(writeMapKey);
+            ctx.buffer(':');
+        }
         if (isCollectionValueNullable) {
             ctx.append("if (entry.getValue() == null) { stream.writeNull(); } else {");
             CodegenImplNative.genWriteOp(ctx, "entry.getValue()", valueType, true);
@@ -1,5 +1,8 @@
 package com.jsoniter.output;
 
+import com.jsoniter.DoubleList;
+import com.jsoniter.IntList;
+import com.jsoniter.LongList;
 import com.jsoniter.spi.JsonException;
 import com.jsoniter.any.Any;
 import com.jsoniter.spi.*;
@@ -262,13 +265,73 @@ class CodegenImplNative {
                 return Any.wrap(obj.toString());
             }
         });
+        put(IntList.class, new Encoder() {
+            @Override
+            public void encode(Object obj, JsonStream stream) throws IOException {
+                stream.writeVal((IntList) obj);
+            }
+
+            @Override
+            public Any wrap(Object obj) {
+                return Any.wrapArray(((IntList) obj).toArray());
+            }
+        });
+        put(LongList.class, new Encoder() {
+            @Override
+            public void encode(Object obj, JsonStream stream) throws IOException {
+                stream.writeVal((LongList) obj);
+            }
+
+            @Override
+            public Any wrap(Object obj) {
+                return Any.wrapArray(((LongList) obj).toArray());
+            }
+        });
+        put(DoubleList.class, new Encoder() {
+            @Override
+            public void encode(Object obj, JsonStream stream) throws IOException {
+                stream.writeVal((DoubleList) obj);
+            }
+
+            @Override
+            public Any wrap(Object obj) {
+                return Any.wrapArray(((DoubleList) obj).toArray());
+            }
+        });
     }};
 
     public static void genWriteOp(CodegenResult ctx, String code, Type valueType, boolean isNullable) {
         genWriteOp(ctx, code, valueType, isNullable, true);
     }
 
+    // remember the last element class and its encoder, elements of untyped collections are mostly of one class
+    static void genInlineCache(CodegenResult ctx, Type valueType, boolean isCollectionValueNullable) {
+        if (valueType != Object.class || !isCollectionValueNullable) {
+            return;
+        }
+        Encoder encoder = JsoniterSpi.getEncoder(TypeLiteral.create(valueType).getEncoderCacheKey());
+        if (encoder != null && encoder != NATIVE_ENCODERS.get(Object.class)) {
+            return;
+        }
+        ctx.append("java.lang.Class lastClass = null;");
+        ctx.append("com.jsoniter.spi.Encoder lastEncoder = null;");
+        ctx.hasInlineCache = true;
+    }
+
     public static void genWriteOp(CodegenResult ctx, String code, Type valueType, boolean isNullable, boolean isCollectionValueNullable) {
+        if (ctx.hasInlineCache && isNullable && valueType == Object.class) {
+            // code might be a call, evaluate it once
+            ctx.append("{");
+            ctx.append(String.format("java.lang.Object cached = %s;", code));
+            ctx.append("java.lang.Class cachedClass = cached.getClass();");
+            ctx.append("if (cachedClass != lastClass) {");
+            ctx.append("lastClass = cachedClass;");
+            ctx.append("lastEncoder = com.jsoniter.output.CodegenAccess.getEncoder(cachedClass);");
+            ctx.append("}");
+            ctx.append("lastEncoder.encode(cached, stream);");
+            ctx.append("}");
+            return;
+        }
         String cacheKey = TypeLiteral.create(valueType).getEncoderCacheKey();
         if (JsoniterSpi.getEncoder(cacheKey) == null) {
             if (!isNullable && String.class == valueType) {
@@ -292,18 +355,41 @@ class CodegenImplNative {
             if (isNullable) {
                 ctx.appendBuffer();
                 ctx.append(CodegenResult.bufferToWriteOp(generatedSource.prelude));
-                ctx.append(String.format("%s.encode_((%s)%s, stream);", cacheKey, getTypeName(valueType), code));
+                ctx.append(String.format("%s.encode_((%s)%s, stream);", ctx.linkClass(cacheKey, generatedSource), getTypeName(valueType), code));
                 ctx.append(CodegenResult.bufferToWriteOp(generatedSource.epilogue));
             } else {
                 ctx.buffer(generatedSource.prelude);
-                ctx.append(String.format("%s.encode_((%s)%s, stream);", cacheKey, getTypeName(valueType), code));
+                ctx.append(String.format("%s.encode_((%s)%s, stream);", ctx.linkClass(cacheKey, generatedSource), getTypeName(valueType), code));
                 ctx.buffer(generatedSource.epilogue);
             }
         } else {
-            ctx.append(String.format("com.jsoniter.output.CodegenAccess.writeVal(\"%s\", (%s)%s, stream);", cacheKey, getTypeName(valueType), code));
+            genLinkedWriteOp(ctx, cacheKey, String.format("(%s)%s", getTypeName(valueType), code), valueType);
+        }
+    }
+
+    static void genLinkedWriteOp(CodegenResult ctx, String cacheKey, String code, Type valueType) {
+        if (valueType == boolean.class) {
+            genTypedWriteOp(ctx, cacheKey, code, Encoder.BooleanEncoder.class, "encodeBoolean");
+        } else if (valueType == byte.class || valueType == short.class) {
+            genTypedWriteOp(ctx, cacheKey, code, Encoder.ShortEncoder.class, "encodeShort");
+        } else if (valueType == char.class || valueType == int.class) {
+            genTypedWriteOp(ctx, cacheKey, code, Encoder.IntEncoder.class, "encodeInt");
+        } else if (valueType == long.class) {
+            genTypedWriteOp(ctx, cacheKey, code, Encoder.LongEncoder.class, "encodeLong");
+        } else if (valueType == float.class) {
+            genTypedWriteOp(ctx, cacheKey, code, Encoder.FloatEncoder.class, "encodeFloat");
+        } else if (valueType == double.class) {
+            genTypedWriteOp(ctx, cacheKey, code, Encoder.DoubleEncoder.class, "encodeDouble");
+        } else {
+            ctx.append(String.format("%s.encode(%s, stream);", ctx.linkEncoder(cacheKey), code));
         }
     }
 
+    private static void genTypedWriteOp(CodegenResult ctx, String cacheKey, String code,
+                                        Class<? extends Encoder> encoderClass, String method) {
+        ctx.append(String.format("%s.%s(%s, stream);", ctx.linkEncoder(cacheKey, encoderClass), method, code));
+    }
+
     public static String getTypeName(Type fieldType) {
         if (fieldType instanceof Class) {
             Class clazz = (Class) fieldType;
@@ -8,6 +8,11 @@ import java.lang.reflect.Method;
 import java.util.*;
 
 class CodegenImplObject {
+
+    // large methods are not compiled by JIT, wide classes are encoded by helper methods of a few fields each
+    private static final int SPLIT_THRESHOLD = 32;
+    private static final int FIELDS_PER_METHOD = 16;
+
     public static CodegenResult genObject(Class clazz) {
 
         CodegenResult ctx = new CodegenResult();
@@ -31,8 +36,18 @@ class CodegenImplObject {
         if (hasFieldOutput(desc)) {
             int notFirst = 0;
             ctx.buffer('{');
-            for (String toName : toNames) {
-                notFirst = genField(ctx, bindings.get(toName), toName, notFirst);
+            if (toNames.size() > SPLIT_THRESHOLD) {
+                ctx.append("boolean notFirst = false;");
+                for (int i = 0; i < toNames.size(); i += FIELDS_PER_METHOD) {
+                    List<String> chunk = toNames.subList(i, Math.min(toNames.size(), i + FIELDS_PER_METHOD));
+                    String helperName = genHelper(ctx, clazz, bindings, chunk);
+                    ctx.append(String.format("notFirst = %s(obj, stream, notFirst);", helperName));
+                }
+                notFirst = 2;
+            } else {
+                for (String toName : toNames) {
+                    notFirst = genField(ctx, bindings.get(toName), toName, notFirst);
+                }
             }
             for (Method unwrapper : desc.unWrappers) {
                 notFirst = appendComma(ctx, notFirst);
@@ -47,6 +62,23 @@ class CodegenImplObject {
     }
 
 
+    // the helper is told whether a field has been written before, and tells the caller afterwards
+    private static String genHelper(CodegenResult ctx, Class clazz, Map<String, Binding> bindings, List<String> toNames) {
+        String helperName = "fields" + ctx.helpers.size() + "_";
+        CodegenResult helper = ctx.forHelper();
+        helper.append(String.format("private static boolean %s(%s obj, com.jsoniter.output.JsonStream stream, boolean notFirst) throws java.io.IOException {",
+                helperName, clazz.getCanonicalName()));
+        int notFirst = 2;
+        for (String toName : toNames) {
+            notFirst = genField(helper, bindings.get(toName), toName, notFirst);
+        }
+        helper.appendBuffer();
+        helper.append("return notFirst;");
+        helper.append("}");
+        ctx.helpers.add(helper.toString());
+        return helperName;
+    }
+
     private static boolean hasFieldOutput(ClassDescriptor desc) {
         if (!desc.unWrappers.isEmpty()) {
             return true;
@@ -106,8 +138,7 @@ class CodegenImplObject {
         if (encoder == null) {
             CodegenImplNative.genWriteOp(ctx, valueAccessor, binding.valueType, nullable, isCollectionValueNullable);
         } else {
-            ctx.append(String.format("com.jsoniter.output.CodegenAccess.writeVal(\"%s\", %s, stream);",
-                    fieldCacheKey, valueAccessor));
+            CodegenImplNative.genLinkedWriteOp(ctx, fieldCacheKey, valueAccessor, valueClazz);
         }
         if (nullable) {
             ctx.append("}");
@@ -1,12 +1,45 @@
 package com.jsoniter.output;
 
+import com.jsoniter.spi.Encoder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 class CodegenResult {
 
     String prelude = null; // first
     String epilogue = null; // last
+    // name of the class defined from the source
+    String className;
+    // static final fields holding the encoders used by generated code
+    final List<String> fields;
+    private final Map<String, String> linkedEncoders;
+    // helper methods called by encode_, defined before it
+    final List<String> helpers;
+    boolean hasInlineCache = false;
     private StringBuilder lines = new StringBuilder();
     private StringBuilder buffered = new StringBuilder();
 
+    CodegenResult() {
+        this(new ArrayList<String>(), new HashMap<String, String>(), new ArrayList<String>());
+    }
+
+    private CodegenResult(List<String> fields, Map<String, String> linkedEncoders, List<String> helpers) {
+        this.fields = fields;
+        this.linkedEncoders = linkedEncoders;
+        this.helpers = helpers;
+    }
+
+    // source of a helper method sharing the linked encoders,
+    // nothing can be hoisted out of a helper, so every buffered byte is written inside it
+    public CodegenResult forHelper() {
+        CodegenResult helper = new CodegenResult(fields, linkedEncoders, helpers);
+        helper.prelude = "";
+        return helper;
+    }
+
     public static String bufferToWriteOp(String buffered) {
         if (buffered == null) {
             return "";
@@ -78,6 +111,31 @@ class CodegenResult {
         buffered.setLength(0);
     }
 
+    public String linkEncoder(String cacheKey) {
+        return linkEncoder(cacheKey, Encoder.class);
+    }
+
+    // the field is typed as the encoder class, typed encoders write primitives without boxing
+    public String linkEncoder(String cacheKey, Class<? extends Encoder> encoderClass) {
+        Codegen.dependOn(cacheKey);
+        String typeName = encoderClass.getCanonicalName();
+        String key = typeName + "@" + cacheKey;
+        String fieldName = linkedEncoders.get(key);
+        if (fieldName == null) {
+            fieldName = "encoder" + fields.size();
+            linkedEncoders.put(key, fieldName);
+            fields.add(String.format("private static final %s %s = (%s) com.jsoniter.output.CodegenAccess.linkEncoder(\"%s\");",
+                    typeName, fieldName, typeName, cacheKey));
+        }
+        return fieldName;
+    }
+
+    // generated code calls the encode_ of the class generated from the source directly
+    public String linkClass(String cacheKey, CodegenResult source) {
+        Codegen.dependOn(cacheKey);
+        return source.className;
+    }
+
     public String toString() {
         return lines.toString();
     }
@@ -1,35 +1,44 @@
 package com.jsoniter.output;
 
-import com.jsoniter.spi.Decoder;
 import com.jsoniter.spi.EmptyEncoder;
 import com.jsoniter.spi.Encoder;
-import com.sun.org.apache.xml.internal.utils.StringBufferPool;
+import com.jsoniter.spi.GeneratedClassLoader;
 import javassist.*;
 
-class DynamicCodegen {
-
-    static ClassPool pool = ClassPool.getDefault();
+import java.lang.reflect.Type;
 
-    static {
-        pool.insertClassPath(new ClassClassPath(Encoder.class));
-    }
+class DynamicCodegen {
 
-    public static Encoder gen(Class clazz, String cacheKey, CodegenResult source) throws Exception {
+    public static Encoder gen(Class clazz, Type[] typeArgs, String cacheKey, CodegenResult source) throws Exception {
         source.flushBuffer();
-        CtClass ctClass = pool.makeClass(cacheKey);
-        ctClass.setInterfaces(new CtClass[]{pool.get(Encoder.class.getName())});
-        ctClass.setSuperclass(pool.get(EmptyEncoder.class.getName()));
-        String staticCode = source.toString();
-        CtMethod staticMethod = CtNewMethod.make(staticCode, ctClass);
-        ctClass.addMethod(staticMethod);
-        String wrapperCode = source.generateWrapperCode(clazz);
-        if ("true".equals(System.getenv("JSONITER_DEBUG"))) {
-            System.out.println(">>> " + cacheKey);
-            System.out.println(wrapperCode);
-            System.out.println(staticCode);
+        GeneratedClassLoader loader = GeneratedClassLoader.of(clazz, typeArgs);
+        ClassPool pool = loader.pool;
+        // classes are generated in parallel, the pool compiles one at a time
+        synchronized (pool) {
+            CtClass ctClass = pool.makeClass(cacheKey);
+            ctClass.setInterfaces(new CtClass[]{pool.get(Encoder.class.getName())});
+            ctClass.setSuperclass(pool.get(EmptyEncoder.class.getName()));
+            for (String field : source.fields) {
+                ctClass.addField(CtField.make(field, ctClass));
+            }
+            for (String helper : source.helpers) {
+                ctClass.addMethod(CtNewMethod.make(helper, ctClass));
+            }
+            String staticCode = source.toString();
+            CtMethod staticMethod = CtNewMethod.make(staticCode, ctClass);
+            ctClass.addMethod(staticMethod);
+            String wrapperCode = source.generateWrapperCode(clazz);
+            if ("true".equals(System.getenv("JSONITER_DEBUG"))) {
+                System.out.println(">>> " + cacheKey);
+                System.out.println(wrapperCode);
+                for (String helper : source.helpers) {
+                    System.out.println(helper);
+                }
+                System.out.println(staticCode);
+            }
+            CtMethod interfaceMethod = CtNewMethod.make(wrapperCode, ctClass);
+            ctClass.addMethod(interfaceMethod);
+            return (Encoder) loader.define(ctClass).newInstance();
         }
-        CtMethod interfaceMethod = CtNewMethod.make(wrapperCode, ctClass);
-        ctClass.addMethod(interfaceMethod);
-        return (Encoder) ctClass.toClass().newInstance();
     }
 }
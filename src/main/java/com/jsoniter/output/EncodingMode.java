@@ -9,6 +9,10 @@ public enum EncodingMode {
      * statically codegen
      */
     STATIC_MODE,
+    /**
+     * encode using reflection at first, dynamically codegen in background once a type is encoded often
+     */
+    TIERED_MODE,
     /**
      * decoding only using reflection, do not need code generation
      */
@@ -1,5 +1,8 @@
 package com.jsoniter.output;
 
+import com.jsoniter.DoubleList;
+import com.jsoniter.IntList;
+import com.jsoniter.LongList;
 import com.jsoniter.any.Any;
 import com.jsoniter.spi.Encoder;
 import com.jsoniter.spi.JsonException;
@@ -245,6 +248,60 @@ public class JsonStream extends OutputStream {
         StreamImplNumber.writeDouble(this, val);
     }
 
+    public final void writeVal(IntList val) throws IOException {
+        if (val == null) {
+            writeNull();
+            return;
+        }
+        if (val.size() == 0) {
+            writeEmptyArray();
+            return;
+        }
+        writeArrayStart();
+        StreamImplNumber.writeInt(this, val.get(0));
+        for (int i = 1; i < val.size(); i++) {
+            writeMore();
+            StreamImplNumber.writeInt(this, val.get(i));
+        }
+        writeArrayEnd();
+    }
+
+    public final void writeVal(LongList val) throws IOException {
+        if (val == null) {
+            writeNull();
+            return;
+        }
+        if (val.size() == 0) {
+            writeEmptyArray();
+            return;
+        }
+        writeArrayStart();
+        StreamImplNumber.writeLong(this, val.get(0));
+        for (int i = 1; i < val.size(); i++) {
+            writeMore();
+            StreamImplNumber.writeLong(this, val.get(i));
+        }
+        writeArrayEnd();
+    }
+
+    public final void writeVal(DoubleList val) throws IOException {
+        if (val == null) {
+            writeNull();
+            return;
+        }
+        if (val.size() == 0) {
+            writeEmptyArray();
+            return;
+        }
+        writeArrayStart();
+        StreamImplNumber.writeDouble(this, val.get(0));
+        for (int i = 1; i < val.size(); i++) {
+            writeMore();
+            StreamImplNumber.writeDouble(this, val.get(i));
+        }
+        writeArrayEnd();
+    }
+
     public final void writeVal(Any val) throws IOException {
         val.writeTo(this);
     }
@@ -323,9 +380,7 @@ public class JsonStream extends OutputStream {
             writeNull();
             return;
         }
-        Class<?> clazz = obj.getClass();
-        String cacheKey = TypeLiteral.create(clazz).getEncoderCacheKey();
-        Codegen.getEncoder(cacheKey, clazz).encode(obj, this);
+        Codegen.getEncoder(obj.getClass()).encode(obj, this);
     }
 
     public final <T> void writeVal(TypeLiteral<T> typeLiteral, T obj) throws IOException {
@@ -375,6 +430,15 @@ public class JsonStream extends OutputStream {
         Codegen.setMode(mode);
     }
 
+    /**
+     * in TIERED_MODE, the encoder of a type is generated in background after it encoded this many values
+     *
+     * @param invocations values to encode by reflection before codegen
+     */
+    public static void setTieredThreshold(int invocations) {
+        Codegen.tieredThreshold = invocations;
+    }
+
     public static void registerNativeEncoder(Class clazz, Encoder encoder) {
         CodegenImplNative.NATIVE_ENCODERS.put(clazz, encoder);
     }
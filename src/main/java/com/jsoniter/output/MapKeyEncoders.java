@@ -0,0 +1,109 @@
+package com.jsoniter.output;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.Encoder;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.JsoniterSpi;
+import com.jsoniter.spi.TypeLiteral;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.UUID;
+
+// write the map key as a quoted string, the : after it is left to the map encoder
+class MapKeyEncoders {
+
+    static String getCacheKey(Type mapKey) {
+        return TypeLiteral.create(mapKey).getEncoderCacheKey() + "__map_key";
+    }
+
+    static Encoder registerOrGetExisting(Type mapKey) {
+        String cacheKey = getCacheKey(mapKey);
+        Encoder mapKeyEncoder = JsoniterSpi.getEncoder(cacheKey);
+        if (mapKeyEncoder != null) {
+            return mapKeyEncoder;
+        }
+        mapKeyEncoder = createMapKeyEncoder(mapKey);
+        JsoniterSpi.addNewEncoder(cacheKey, mapKeyEncoder);
+        return mapKeyEncoder;
+    }
+
+    private static Encoder createMapKeyEncoder(Type mapKey) {
+        if (mapKey == String.class || mapKey == Object.class) {
+            return new StringKeyEncoder();
+        }
+        if (mapKey == Integer.class || mapKey == Short.class || mapKey == Byte.class) {
+            return new IntKeyEncoder();
+        }
+        if (mapKey == Long.class) {
+            return new LongKeyEncoder();
+        }
+        if (mapKey == Float.class || mapKey == Double.class
+                // toString has every digit needed to read the same value back, unlike writeDouble
+                || mapKey == UUID.class || mapKey == BigInteger.class || mapKey == BigDecimal.class) {
+            return new StringKeyEncoder();
+        }
+        if (mapKey instanceof Class && ((Class) mapKey).isEnum()) {
+            return new EnumKeyEncoder();
+        }
+        throw new JsonException("unsupported map key type: " + mapKey);
+    }
+
+    private static class StringKeyEncoder implements Encoder {
+
+        @Override
+        public void encode(Object obj, JsonStream stream) throws IOException {
+            stream.writeVal(obj.toString());
+        }
+
+        @Override
+        public Any wrap(Object obj) {
+            return Any.wrap(obj.toString());
+        }
+    }
+
+    private static class EnumKeyEncoder implements Encoder {
+
+        @Override
+        public void encode(Object obj, JsonStream stream) throws IOException {
+            stream.writeVal(((Enum) obj).name());
+        }
+
+        @Override
+        public Any wrap(Object obj) {
+            return Any.wrap(((Enum) obj).name());
+        }
+    }
+
+    private static class IntKeyEncoder implements Encoder {
+
+        @Override
+        public void encode(Object obj, JsonStream stream) throws IOException {
+            stream.write('"');
+            StreamImplNumber.writeInt(stream, ((Number) obj).intValue());
+            stream.write('"');
+        }
+
+        @Override
+        public Any wrap(Object obj) {
+            return Any.wrap(obj.toString());
+        }
+    }
+
+    private static class LongKeyEncoder implements Encoder {
+
+        @Override
+        public void encode(Object obj, JsonStream stream) throws IOException {
+            stream.write('"');
+            StreamImplNumber.writeLong(stream, (Long) obj);
+            stream.write('"');
+        }
+
+        @Override
+        public Any wrap(Object obj) {
+            return Any.wrap(obj.toString());
+        }
+    }
+}
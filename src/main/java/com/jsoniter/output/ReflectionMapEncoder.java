@@ -12,12 +12,15 @@ import java.util.Map;
 class ReflectionMapEncoder implements Encoder {
 
     private final TypeLiteral valueTypeLiteral;
+    private final Encoder mapKeyEncoder;
 
     public ReflectionMapEncoder(Class clazz, Type[] typeArgs) {
         if (typeArgs.length > 1) {
             valueTypeLiteral = TypeLiteral.create(typeArgs[1]);
+            mapKeyEncoder = typeArgs[0] == String.class ? null : MapKeyEncoders.registerOrGetExisting(typeArgs[0]);
         } else {
             valueTypeLiteral = TypeLiteral.create(Object.class);
+            mapKeyEncoder = null;
         }
     }
 
@@ -27,16 +30,21 @@ class ReflectionMapEncoder implements Encoder {
             stream.writeNull();
             return;
         }
-        Map<String, Object> map = (Map<String, Object>) obj;
+        Map<Object, Object> map = (Map<Object, Object>) obj;
         stream.writeObjectStart();
         boolean notFirst = false;
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
             if (notFirst) {
                 stream.writeMore();
             } else {
                 notFirst = true;
             }
-            stream.writeObjectField(entry.getKey());
+            if (mapKeyEncoder == null) {
+                stream.writeObjectField((String) entry.getKey());
+            } else {
+                mapKeyEncoder.encode(entry.getKey(), stream);
+                stream.write(':');
+            }
             stream.writeVal(valueTypeLiteral, entry.getValue());
         }
         stream.writeObjectEnd();
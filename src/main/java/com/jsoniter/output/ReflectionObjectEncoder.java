@@ -21,6 +21,9 @@ class ReflectionObjectEncoder implements Encoder {
             if (binding.encoder == null) {
                 // the field encoder might be registered directly
                 binding.encoder = JsoniterSpi.getEncoder(binding.encoderCacheKey());
+                if (binding.encoder != null) {
+                    Codegen.dependOn(binding.encoderCacheKey());
+                }
             }
         }
     }
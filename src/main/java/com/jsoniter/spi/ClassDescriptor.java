@@ -1,5 +1,8 @@
 package com.jsoniter.spi;
 
+import com.jsoniter.DecodingMode;
+import com.jsoniter.output.EncodingMode;
+
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -19,6 +22,9 @@ public class ClassDescriptor {
     public boolean asExtraForUnknownProperties;
     public Binding onMissingProperties;
     public Binding onExtraProperties;
+    // null to use the mode registered for the package or the global mode
+    public DecodingMode decodingMode;
+    public EncodingMode encodingMode;
 
     public List<Binding> allBindings() {
         ArrayList<Binding> bindings = new ArrayList<Binding>(8);
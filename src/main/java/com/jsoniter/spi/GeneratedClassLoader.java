@@ -0,0 +1,191 @@
+package com.jsoniter.spi;
+
+import javassist.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// generated codecs are defined by a child loader of the loader of the class they bind,
+// instead of the application loader, so they can be unloaded together with the class (for example a redeployed plugin)
+public class GeneratedClassLoader extends ClassLoader {
+
+    // the value is weakly referenced, as it references its parent, the key
+    private final static Map<ClassLoader, WeakReference<GeneratedClassLoader>> loaders =
+            new WeakHashMap<ClassLoader, WeakReference<GeneratedClassLoader>>();
+    // javassist reads back the classes defined here, when compiling the codecs calling them
+    private final Map<String, byte[]> bytecodes = new ConcurrentHashMap<String, byte[]>();
+    // compiled classes are detached, only the classes referenced by generated code stay in the pool
+    public final ClassPool pool = new ClassPool(false);
+
+    private GeneratedClassLoader(ClassLoader parent) {
+        super(parent);
+        pool.appendClassPath(new LoaderClassPath(this));
+        pool.appendClassPath(new ClassClassPath(GeneratedClassLoader.class));
+    }
+
+    public static synchronized GeneratedClassLoader of(Class clazz, Type[] typeArgs) {
+        ClassLoader target = mostSpecific(null, clazz);
+        for (Type typeArg : typeArgs) {
+            target = mostSpecific(target, typeArg);
+        }
+        if (target == null) {
+            // jdk classes
+            target = GeneratedClassLoader.class.getClassLoader();
+        }
+        WeakReference<GeneratedClassLoader> ref = loaders.get(target);
+        GeneratedClassLoader loader = ref == null ? null : ref.get();
+        if (loader == null) {
+            loader = new GeneratedClassLoader(target);
+            loaders.put(target, new WeakReference<GeneratedClassLoader>(loader));
+        }
+        return loader;
+    }
+
+    // codecs generated later for the class loader (or its children) will be defined by a new loader
+    static synchronized void forget(ClassLoader classLoader) {
+        Iterator<ClassLoader> iter = loaders.keySet().iterator();
+        while (iter.hasNext()) {
+            ClassLoader target = iter.next();
+            if (target == classLoader || isAncestor(classLoader, target)) {
+                iter.remove();
+            }
+        }
+    }
+
+    // the type refers to a class of the class loader (or its children), codecs generated for it included
+    static boolean isLoadedBy(Type type, ClassLoader classLoader) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType pType = (ParameterizedType) type;
+            if (isLoadedBy(pType.getRawType(), classLoader)) {
+                return true;
+            }
+            for (Type typeArg : pType.getActualTypeArguments()) {
+                if (isLoadedBy(typeArg, classLoader)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (type instanceof GenericArrayType) {
+            return isLoadedBy(((GenericArrayType) type).getGenericComponentType(), classLoader);
+        }
+        if (!(type instanceof Class)) {
+            return false;
+        }
+        Class clazz = (Class) type;
+        while (clazz.isArray()) {
+            clazz = clazz.getComponentType();
+        }
+        ClassLoader loader = clazz.getClassLoader();
+        return loader != null && (loader == classLoader || isAncestor(classLoader, loader));
+    }
+
+    // the loader can see the classes of the other loaders, if they are its ancestors
+    private static ClassLoader mostSpecific(ClassLoader current, Type type) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType pType = (ParameterizedType) type;
+            current = mostSpecific(current, pType.getRawType());
+            for (Type typeArg : pType.getActualTypeArguments()) {
+                current = mostSpecific(current, typeArg);
+            }
+            return current;
+        }
+        if (type instanceof GenericArrayType) {
+            return mostSpecific(current, ((GenericArrayType) type).getGenericComponentType());
+        }
+        if (!(type instanceof Class)) {
+            return current;
+        }
+        Class clazz = (Class) type;
+        while (clazz.isArray()) {
+            clazz = clazz.getComponentType();
+        }
+        ClassLoader loader = clazz.getClassLoader();
+        if (loader == null) {
+            return current;
+        }
+        if (current == null || isAncestor(current, loader)) {
+            return loader;
+        }
+        return current;
+    }
+
+    private static boolean isAncestor(ClassLoader ancestor, ClassLoader loader) {
+        for (ClassLoader parent = loader.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Class define(CtClass ctClass) throws IOException, CannotCompileException {
+        String className = ctClass.getName();
+        byte[] bytecode = ctClass.toBytecode();
+        ctClass.detach();
+        synchronized (this) {
+            Class clazz = defineClass(className, bytecode, 0, bytecode.length);
+            bytecodes.put(className, bytecode);
+            return clazz;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        // the bound class might be loaded by a loader not seeing jsoniter
+        ClassLoader jsoniterLoader = GeneratedClassLoader.class.getClassLoader();
+        try {
+            return Class.forName(name, false, jsoniterLoader);
+        } catch (ClassNotFoundException e) {
+            // try the codecs generated for the parent loaders
+        }
+        for (GeneratedClassLoader loader : ancestors()) {
+            if (loader.bytecodes.containsKey(name)) {
+                return loader.loadClass(name);
+            }
+        }
+        throw new ClassNotFoundException(name);
+    }
+
+    @Override
+    public InputStream getResourceAsStream(String name) {
+        if (name.endsWith(".class")) {
+            String className = name.substring(0, name.length() - ".class".length()).replace('/', '.');
+            if (bytecodes.containsKey(className)) {
+                return new ByteArrayInputStream(bytecodes.get(className));
+            }
+            for (GeneratedClassLoader loader : ancestors()) {
+                if (loader.bytecodes.containsKey(className)) {
+                    return new ByteArrayInputStream(loader.bytecodes.get(className));
+                }
+            }
+        }
+        return super.getResourceAsStream(name);
+    }
+
+    private List<GeneratedClassLoader> ancestors() {
+        List<GeneratedClassLoader> ancestors = new ArrayList<GeneratedClassLoader>();
+        synchronized (GeneratedClassLoader.class) {
+            for (ClassLoader parent = getParent().getParent(); parent != null; parent = parent.getParent()) {
+                addLoaderOf(ancestors, parent);
+            }
+            addLoaderOf(ancestors, GeneratedClassLoader.class.getClassLoader());
+        }
+        return ancestors;
+    }
+
+    private void addLoaderOf(List<GeneratedClassLoader> ancestors, ClassLoader target) {
+        WeakReference<GeneratedClassLoader> ref = loaders.get(target);
+        GeneratedClassLoader loader = ref == null ? null : ref.get();
+        if (loader != null && loader != this && !ancestors.contains(loader)) {
+            ancestors.add(loader);
+        }
+    }
+}
@@ -1,15 +1,30 @@
 package com.jsoniter.spi;
 
+import com.jsoniter.DecodingMode;
+import com.jsoniter.output.EncodingMode;
+
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 public class JsoniterSpi {
 
     static List<Extension> extensions = new ArrayList<Extension>();
     static Map<Class, Class> typeImpls = new HashMap<Class, Class>();
-    static volatile Map<String, Encoder> encoders = new HashMap<String, Encoder>();
-    static volatile Map<String, Decoder> decoders = new HashMap<String, Decoder>();
-    static volatile Map<Class, Extension> objectFactories = new HashMap<Class, Extension>();
+    // lock free read, insert without copying the whole cache
+    static final Map<String, Encoder> encoders = new ConcurrentHashMap<String, Encoder>();
+    static final Map<String, Decoder> decoders = new ConcurrentHashMap<String, Decoder>();
+    static final Map<Class, Extension> objectFactories = new ConcurrentHashMap<Class, Extension>();
+    // encoders of runtime classes, derived from encoders, an entry is dropped when the encoder of its cache key changes
+    static final Map<Class, Encoder> classEncoders = new ConcurrentHashMap<Class, Encoder>();
+    static final Map<String, Class> classEncoderKeys = new ConcurrentHashMap<String, Class>();
+    // keyed by class name or package name
+    static final Map<String, DecodingMode> decodingModes = new ConcurrentHashMap<String, DecodingMode>();
+    static final Map<String, EncodingMode> encodingModes = new ConcurrentHashMap<String, EncodingMode>();
 
     public static void registerExtension(Extension extension) {
         extensions.add(extension);
@@ -59,24 +74,272 @@ public class JsoniterSpi {
         addNewEncoder(field + "@" + typeLiteral.getDecoderCacheKey(), encoder);
     }
 
+    /**
+     * decode the class in this mode instead of the global mode, null to use the global mode again,
+     * takes effect for decoders not created yet
+     */
+    public static void registerDecodingMode(Class clazz, DecodingMode mode) {
+        registerByName(decodingModes, clazz.getName(), mode);
+    }
+
+    /**
+     * decode classes of the package and its sub packages in this mode instead of the global mode,
+     * takes effect for decoders not created yet
+     */
+    public static void registerDecodingMode(String packageName, DecodingMode mode) {
+        registerByName(decodingModes, packageName, mode);
+    }
+
+    public static void registerEncodingMode(Class clazz, EncodingMode mode) {
+        registerByName(encodingModes, clazz.getName(), mode);
+    }
+
+    public static void registerEncodingMode(String packageName, EncodingMode mode) {
+        registerByName(encodingModes, packageName, mode);
+    }
+
+    /**
+     * @return mode registered for the class, or the nearest package of it, null if none
+     */
+    public static DecodingMode getDecodingMode(Class clazz) {
+        return lookupByName(decodingModes, clazz);
+    }
+
+    public static EncodingMode getEncodingMode(Class clazz) {
+        return lookupByName(encodingModes, clazz);
+    }
+
+    private static <T> void registerByName(Map<String, T> registered, String name, T value) {
+        if (value == null) {
+            registered.remove(name);
+        } else {
+            registered.put(name, value);
+        }
+    }
+
+    private static <T> T lookupByName(Map<String, T> registered, Class clazz) {
+        if (registered.isEmpty()) {
+            return null;
+        }
+        String name = clazz.getName();
+        while (true) {
+            T value = registered.get(name);
+            if (value != null) {
+                return value;
+            }
+            int dot = name.lastIndexOf('.');
+            if (dot == -1) {
+                return null;
+            }
+            name = name.substring(0, dot);
+        }
+    }
+
+    /**
+     * create the decoders and encoders of the types before they are first used, each type is a task of the executor
+     * types are generated in parallel, a type used by several tasks is generated once, the others wait for it
+     *
+     * @param typeLiterals types to warm up, for example the ones listed by CodegenConfig.whatToCodegen()
+     * @param executor     runs the tasks
+     * @return nanoseconds spent on each type, in the order of typeLiterals
+     */
+    public static Map<TypeLiteral, Long> warmUp(Collection<? extends TypeLiteral> typeLiterals, Executor executor) {
+        List<FutureTask<Long>> tasks = new ArrayList<FutureTask<Long>>();
+        for (final TypeLiteral typeLiteral : typeLiterals) {
+            FutureTask<Long> task = new FutureTask<Long>(new Callable<Long>() {
+                @Override
+                public Long call() throws Exception {
+                    long start = System.nanoTime();
+                    com.jsoniter.CodegenAccess.getDecoder(typeLiteral);
+                    com.jsoniter.output.CodegenAccess.getEncoder(typeLiteral);
+                    return System.nanoTime() - start;
+                }
+            });
+            tasks.add(task);
+            executor.execute(task);
+        }
+        Map<TypeLiteral, Long> elapsed = new LinkedHashMap<TypeLiteral, Long>();
+        Iterator<FutureTask<Long>> iter = tasks.iterator();
+        for (TypeLiteral typeLiteral : typeLiterals) {
+            try {
+                elapsed.put(typeLiteral, iter.next().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JsonException("interrupted while warming up " + typeLiteral, e);
+            } catch (ExecutionException e) {
+                throw new JsonException("failed to warm up " + typeLiteral, e.getCause());
+            }
+        }
+        return elapsed;
+    }
+
     public static Decoder getDecoder(String cacheKey) {
         return decoders.get(cacheKey);
     }
 
-    public synchronized static void addNewDecoder(String cacheKey, Decoder decoder) {
-        HashMap<String, Decoder> newCache = new HashMap<String, Decoder>(decoders);
-        newCache.put(cacheKey, decoder);
-        decoders = newCache;
+    public static void addNewDecoder(String cacheKey, Decoder decoder) {
+        Decoder old;
+        if (decoder == null) {
+            // static codegen only writes the source, nothing to cache
+            old = decoders.remove(cacheKey);
+        } else {
+            old = decoders.put(cacheKey, decoder);
+        }
+        if (old != null && old != decoder) {
+            // the codecs linked to the old one are dropped
+            com.jsoniter.CodegenAccess.decoderReplaced(cacheKey, old, decoder);
+        }
+    }
+
+    /**
+     * register many decoders in one go, for example the decoders generated by static codegen,
+     * the decoders linked to the ones replaced are dropped once all are registered
+     *
+     * @param newDecoders cache key to decoder, not null
+     */
+    public static void addNewDecoders(Map<String, Decoder> newDecoders) {
+        Map<String, Decoder> replaced = new HashMap<String, Decoder>();
+        for (Map.Entry<String, Decoder> entry : newDecoders.entrySet()) {
+            Decoder old = decoders.get(entry.getKey());
+            if (old != null && old != entry.getValue()) {
+                replaced.put(entry.getKey(), old);
+            }
+        }
+        decoders.putAll(newDecoders);
+        for (Map.Entry<String, Decoder> entry : replaced.entrySet()) {
+            com.jsoniter.CodegenAccess.decoderReplaced(entry.getKey(), entry.getValue(), newDecoders.get(entry.getKey()));
+        }
     }
 
     public static Encoder getEncoder(String cacheKey) {
         return encoders.get(cacheKey);
     }
 
-    public synchronized static void addNewEncoder(String cacheKey, Encoder encoder) {
-        HashMap<String, Encoder> newCache = new HashMap<String, Encoder>(encoders);
-        newCache.put(cacheKey, encoder);
-        encoders = newCache;
+    public static void addNewEncoder(String cacheKey, Encoder encoder) {
+        Encoder old;
+        if (encoder == null) {
+            // static codegen only writes the source, nothing to cache
+            old = encoders.remove(cacheKey);
+        } else {
+            old = encoders.put(cacheKey, encoder);
+        }
+        if (old != encoder) {
+            Class clazz = classEncoderKeys.remove(cacheKey);
+            if (clazz != null) {
+                classEncoders.remove(clazz);
+            }
+        }
+        if (old != null && old != encoder) {
+            com.jsoniter.output.CodegenAccess.encoderReplaced(cacheKey, old, encoder);
+        }
+    }
+
+    public static Encoder getClassEncoder(Class clazz) {
+        return classEncoders.get(clazz);
+    }
+
+    /**
+     * @param cacheKey the encoder was looked up by, registering another encoder for it drops the entry
+     */
+    public static void addClassEncoder(Class clazz, String cacheKey, Encoder encoder) {
+        classEncoderKeys.put(cacheKey, clazz);
+        classEncoders.put(clazz, encoder);
+    }
+
+    /**
+     * register many encoders in one go, for example the encoders generated by static codegen,
+     * the encoders linked to the ones replaced are dropped once all are registered
+     *
+     * @param newEncoders cache key to encoder, not null
+     */
+    public static void addNewEncoders(Map<String, Encoder> newEncoders) {
+        Map<String, Encoder> replaced = new HashMap<String, Encoder>();
+        for (Map.Entry<String, Encoder> entry : newEncoders.entrySet()) {
+            Encoder old = encoders.get(entry.getKey());
+            if (old == entry.getValue()) {
+                continue;
+            }
+            if (old != null) {
+                replaced.put(entry.getKey(), old);
+            }
+            Class clazz = classEncoderKeys.remove(entry.getKey());
+            if (clazz != null) {
+                classEncoders.remove(clazz);
+            }
+        }
+        encoders.putAll(newEncoders);
+        for (Map.Entry<String, Encoder> entry : replaced.entrySet()) {
+            com.jsoniter.output.CodegenAccess.encoderReplaced(entry.getKey(), entry.getValue(), newEncoders.get(entry.getKey()));
+        }
+    }
+
+    /**
+     * forget the codecs of the classes of the class loader (or its children), and every cache referencing them,
+     * so that they can be unloaded together with it, for example when a plugin is redeployed
+     *
+     * @param classLoader the loader about to be discarded
+     */
+    public static void unloadCodecs(ClassLoader classLoader) {
+        GeneratedClassLoader.forget(classLoader);
+        Set<String> typeKeys = TypeLiteral.unload(classLoader);
+        Set<String> unloaded = new HashSet<String>(typeKeys);
+        Iterator<Map.Entry<String, Decoder>> decoderIter = decoders.entrySet().iterator();
+        while (decoderIter.hasNext()) {
+            Map.Entry<String, Decoder> entry = decoderIter.next();
+            if (isUnloaded(entry.getKey(), entry.getValue(), typeKeys, classLoader)) {
+                decoderIter.remove();
+                unloaded.add(entry.getKey());
+            }
+        }
+        Iterator<Map.Entry<String, Encoder>> encoderIter = encoders.entrySet().iterator();
+        while (encoderIter.hasNext()) {
+            Map.Entry<String, Encoder> entry = encoderIter.next();
+            if (isUnloaded(entry.getKey(), entry.getValue(), typeKeys, classLoader)) {
+                encoderIter.remove();
+                unloaded.add(entry.getKey());
+            }
+        }
+        Iterator<Map.Entry<Class, Encoder>> classEncoderIter = classEncoders.entrySet().iterator();
+        while (classEncoderIter.hasNext()) {
+            Map.Entry<Class, Encoder> entry = classEncoderIter.next();
+            if (GeneratedClassLoader.isLoadedBy(entry.getKey(), classLoader)
+                    || GeneratedClassLoader.isLoadedBy(entry.getValue().getClass(), classLoader)) {
+                classEncoderIter.remove();
+            }
+        }
+        Iterator<Map.Entry<String, Class>> classEncoderKeyIter = classEncoderKeys.entrySet().iterator();
+        while (classEncoderKeyIter.hasNext()) {
+            Map.Entry<String, Class> entry = classEncoderKeyIter.next();
+            if (unloaded.contains(entry.getKey()) || !classEncoders.containsKey(entry.getValue())) {
+                classEncoderKeyIter.remove();
+                classEncoders.remove(entry.getValue());
+            }
+        }
+        Iterator<Map.Entry<Class, Extension>> objectFactoryIter = objectFactories.entrySet().iterator();
+        while (objectFactoryIter.hasNext()) {
+            Map.Entry<Class, Extension> entry = objectFactoryIter.next();
+            if (GeneratedClassLoader.isLoadedBy(entry.getKey(), classLoader)
+                    || GeneratedClassLoader.isLoadedBy(entry.getValue().getClass(), classLoader)) {
+                objectFactoryIter.remove();
+            }
+        }
+        com.jsoniter.CodegenAccess.unloadCodecs(unloaded);
+        com.jsoniter.output.CodegenAccess.unloadCodecs(unloaded);
+    }
+
+    // defined by the class loader (including generated for it), or registered for one of its types.
+    // codecs of properties are keyed by field@cacheKey, of map keys and not nullable values by cacheKey__suffix
+    private static boolean isUnloaded(String cacheKey, Object codec, Set<String> typeKeys, ClassLoader classLoader) {
+        if (GeneratedClassLoader.isLoadedBy(codec.getClass(), classLoader)) {
+            return true;
+        }
+        String typeKey = cacheKey.substring(cacheKey.lastIndexOf('@') + 1);
+        for (String key : typeKeys) {
+            if (typeKey.startsWith(key) && (typeKey.length() == key.length() || typeKey.startsWith("__", key.length()))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public static boolean canCreate(Class clazz) {
@@ -96,10 +359,15 @@ public class JsoniterSpi {
         return objectFactories.get(clazz).create(clazz);
     }
 
-    private synchronized static void addObjectFactory(Class clazz, Extension extension) {
-        HashMap<Class, Extension> copy = new HashMap<Class, Extension>(objectFactories);
-        copy.put(clazz, extension);
-        objectFactories = copy;
+    public static Extension getObjectFactory(Class clazz) {
+        if (!canCreate(clazz)) {
+            return null;
+        }
+        return objectFactories.get(clazz);
+    }
+
+    private static void addObjectFactory(Class clazz, Extension extension) {
+        objectFactories.put(clazz, extension);
     }
 
     public static ClassDescriptor getDecodingClassDescriptor(Class clazz, boolean includingPrivate) {
@@ -8,7 +8,11 @@ import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TypeLiteral<T> {
 
@@ -52,7 +56,7 @@ public class TypeLiteral<T> {
         put(Any.class, NativeType.ANY);
     }};
 
-    private volatile static Map<Type, TypeLiteral> typeLiteralCache = new HashMap<Type, TypeLiteral>();
+    private final static ConcurrentHashMap<Type, TypeLiteral> typeLiteralCache = new ConcurrentHashMap<Type, TypeLiteral>();
     final Type type;
     final String decoderCacheKey;
     final String encoderCacheKey;
@@ -161,17 +165,29 @@ public class TypeLiteral<T> {
         return createNew(valueType);
     }
 
-    private synchronized static TypeLiteral createNew(Type valueType) {
-        TypeLiteral typeLiteral = typeLiteralCache.get(valueType);
-        if (typeLiteral != null) {
-            return typeLiteral;
+    // forget the types of the class loader, returns their cache keys
+    static Set<String> unload(ClassLoader classLoader) {
+        Set<String> cacheKeys = new HashSet<String>();
+        Iterator<TypeLiteral> iter = typeLiteralCache.values().iterator();
+        while (iter.hasNext()) {
+            TypeLiteral typeLiteral = iter.next();
+            if (GeneratedClassLoader.isLoadedBy(typeLiteral.type, classLoader)) {
+                iter.remove();
+                cacheKeys.add(typeLiteral.decoderCacheKey);
+                cacheKeys.add(typeLiteral.encoderCacheKey);
+            }
         }
-        HashMap<Type, TypeLiteral> copy = new HashMap<Type, TypeLiteral>(typeLiteralCache);
-        typeLiteral = new TypeLiteral(valueType,
+        return cacheKeys;
+    }
+
+    private static TypeLiteral createNew(Type valueType) {
+        TypeLiteral typeLiteral = new TypeLiteral(valueType,
                 generateDecoderCacheKey(valueType),
                 generateEncoderCacheKey(valueType));
-        copy.put(valueType, typeLiteral);
-        typeLiteralCache = copy;
+        TypeLiteral existing = typeLiteralCache.putIfAbsent(valueType, typeLiteral);
+        if (existing != null) {
+            return existing;
+        }
         return typeLiteral;
     }
 
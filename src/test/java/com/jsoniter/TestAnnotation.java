@@ -5,6 +5,7 @@ import com.jsoniter.any.Any;
 import com.jsoniter.fuzzy.StringIntDecoder;
 import com.jsoniter.spi.JsonException;
 import com.jsoniter.spi.JsoniterSpi;
+import com.jsoniter.spi.TypeLiteral;
 import junit.framework.TestCase;
 
 import java.io.IOException;
@@ -35,6 +36,17 @@ public class TestAnnotation extends TestCase {
         assertEquals(100, obj.field1);
     }
 
+    public static class TestObject21 {
+        @JsonProperty(from = {"caf\u00e9"})
+        public int field1;
+    }
+
+    public void test_rename_to_non_ascii() throws IOException {
+        JsonIterator iter = JsonIterator.parse("{\"caf\u00e9\": 100}");
+        TestObject21 obj = iter.read(TestObject21.class);
+        assertEquals(100, obj.field1);
+    }
+
     public void test_ignore() throws IOException {
         JsonIterator iter = JsonIterator.parse("{'field2': 100}".replace('\'', '"'));
         TestObject1 obj = iter.read(TestObject1.class);
@@ -291,4 +303,37 @@ public class TestAnnotation extends TestCase {
         assertNotNull(obj);
         assertEquals(1, obj._val);
     }
+
+    @JsonObject(decodingMode = DecodingMode.REFLECTION_MODE)
+    public static class TestObject19 {
+        public int field1;
+    }
+
+    public static class TestObject20 {
+        public int field1;
+    }
+
+    public void test_mode_of_type() throws IOException {
+        JsoniterSpi.registerDecodingMode(TestObject20.class, DecodingMode.DYNAMIC_MODE_AND_MATCH_FIELD_STRICTLY);
+        try {
+            assertEquals(1, JsonIterator.deserialize("{\"field1\":1}", TestObject19.class).field1);
+            assertEquals(1, JsonIterator.deserialize("{\"field1\":1}", TestObject20.class).field1);
+            String cacheKey19 = TypeLiteral.create(TestObject19.class).getDecoderCacheKey();
+            assertFalse(cacheKey19.equals(JsoniterSpi.getDecoder(cacheKey19).getClass().getName()));
+            String cacheKey20 = TypeLiteral.create(TestObject20.class).getDecoderCacheKey();
+            assertEquals(cacheKey20, JsoniterSpi.getDecoder(cacheKey20).getClass().getName());
+        } finally {
+            JsoniterSpi.registerDecodingMode(TestObject20.class, null);
+        }
+    }
+
+    public void test_mode_of_package() {
+        JsoniterSpi.registerDecodingMode("com.jsoniter.fuzzy", DecodingMode.STATIC_MODE);
+        try {
+            assertEquals(DecodingMode.STATIC_MODE, JsoniterSpi.getDecodingMode(StringIntDecoder.class));
+            assertNull(JsoniterSpi.getDecodingMode(TestObject19.class));
+        } finally {
+            JsoniterSpi.registerDecodingMode("com.jsoniter.fuzzy", null);
+        }
+    }
 }
@@ -199,4 +199,114 @@ public class TestArray extends TestCase {
         any.asList().add(Any.wrap(4));
         assertEquals("[1,2,3,4]", any.toString());
     }
+
+    public static class ProfiledElement {
+        public int field1;
+    }
+
+    public void test_profile_guided_decoding() throws Exception {
+        if (Codegen.mode == DecodingMode.REFLECTION_MODE) {
+            // only generated decoders are profiled
+            return;
+        }
+        // never regenerated in background, the test regenerates by itself
+        JsonIterator.enableProfileGuidedDecoding(Integer.MAX_VALUE);
+        try {
+            TypeLiteral<ArrayList<ProfiledElement>> typeLiteral = new TypeLiteral<ArrayList<ProfiledElement>>() {
+            };
+            String input = "[{\"field1\":1},{\"field1\":2},{\"field1\":3},{\"field1\":4},{\"field1\":5},{\"field1\":6}]";
+            assertEquals(6, JsonIterator.deserialize(input, typeLiteral).size());
+            assertEquals(0, JsonIterator.deserialize("[]", typeLiteral).size());
+            assertEquals(3, JsonIterator.deserialize("[{},{},{}]", typeLiteral).size());
+            ProfiledDecoder profile = Codegen.getProfile(typeLiteral.getDecoderCacheKey());
+            // short collections count too
+            assertEquals(3, profile.averageSize());
+            Codegen.regenerate(profile);
+            assertTrue(profile.regenerated);
+            assertTrue(profile.getDecoder().getClass().getName().endsWith("_profiled"));
+            ArrayList<ProfiledElement> list = JsonIterator.deserialize(input, typeLiteral);
+            assertEquals(6, list.size());
+            assertEquals(6, list.get(5).field1);
+            // regenerated decoder does not profile
+            assertEquals(3, profile.averageSize());
+        } finally {
+            JsonIterator.enableProfileGuidedDecoding(0);
+        }
+    }
+
+    public static class PrimitiveLists {
+        public IntList ints;
+        public LongList longs;
+        public DoubleList doubles;
+    }
+
+    public void test_primitive_lists() throws IOException {
+        IntList ints = JsonIterator.deserialize("[1,2,3]", IntList.class);
+        assertArrayEquals(new int[]{1, 2, 3}, ints.toArray());
+        PrimitiveLists obj = JsonIterator.deserialize(
+                "{\"ints\":[1,-2],\"longs\":[10000000000],\"doubles\":[1.5,2],\"more\":[]}", PrimitiveLists.class);
+        assertArrayEquals(new int[]{1, -2}, obj.ints.toArray());
+        assertArrayEquals(new long[]{10000000000L}, obj.longs.toArray());
+        assertArrayEquals(new double[]{1.5, 2}, obj.doubles.toArray(), 0.0001);
+        // the list in the existing object is refilled
+        IntList existing = obj.ints;
+        JsonIterator iter = JsonIterator.parse("{\"ints\":[3],\"longs\":null}");
+        obj = iter.read(obj);
+        assertSame(existing, obj.ints);
+        assertArrayEquals(new int[]{3}, obj.ints.toArray());
+        assertNull(obj.longs);
+    }
+
+    public void test_primitive_list_bounds_and_equality() throws IOException {
+        IntList ints = JsonIterator.deserialize("[1,2,3]", IntList.class);
+        try {
+            ints.get(-1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        try {
+            ints.set(-1, 0);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        // the spare capacity left by clear does not count
+        IntList reused = JsonIterator.deserialize("[1,2,3,4]", IntList.class);
+        reused.clear();
+        reused.add(1);
+        reused.add(2);
+        reused.add(3);
+        assertEquals(ints, reused);
+        assertEquals(Arrays.hashCode(ints.toArray()), reused.hashCode());
+        DoubleList doubles = JsonIterator.deserialize("[1.5,2]", DoubleList.class);
+        assertEquals(Arrays.hashCode(doubles.toArray()), doubles.hashCode());
+        assertFalse(doubles.equals(JsonIterator.deserialize("[1.5]", DoubleList.class)));
+    }
+
+    public void test_nested_primitive_array() throws IOException {
+        int[][] matrix = JsonIterator.deserialize("[[1,2],[],[3,4,5,6,7,8,9,10,11,12,13]]", int[][].class);
+        assertEquals(3, matrix.length);
+        assertArrayEquals(new int[]{1, 2}, matrix[0]);
+        assertArrayEquals(new int[0], matrix[1]);
+        assertArrayEquals(new int[]{3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13}, matrix[2]);
+        double[][][] polygons = JsonIterator.deserialize(
+                "[[[1.5,2],[3,4]],null,[[5,6],[7,8],[9,10],[11,12],[13,14],[15,16]]]", double[][][].class);
+        assertEquals(3, polygons.length);
+        assertArrayEquals(new double[]{1.5, 2}, polygons[0][0], 0.0001);
+        assertNull(polygons[1]);
+        assertEquals(6, polygons[2].length);
+        assertArrayEquals(new double[]{15, 16}, polygons[2][5], 0.0001);
+    }
+
+    public void test_count_remaining_elements() throws IOException {
+        String[] strings = JsonIterator.deserialize(
+                "[\"a\",\"b\",\"c\",\"d\",\"e,]\",\"\\\",[\",\"g\"]", String[].class);
+        assertArrayEquals(new String[]{"a", "b", "c", "d", "e,]", "\",[", "g"}, strings);
+        List<List<Integer>> lists = JsonIterator.deserialize("[[1],[2,3],[],[4],[5,6],[7]]",
+                new TypeLiteral<ArrayList<List<Integer>>>() {
+                });
+        assertEquals(6, lists.size());
+        assertEquals(Arrays.asList(5, 6), lists.get(4));
+        long[] longs = JsonIterator.deserialize("[ 1 , 2 , 3 , 4 , 5 , 6 ]", long[].class);
+        assertArrayEquals(new long[]{1, 2, 3, 4, 5, 6}, longs);
+    }
 }
@@ -3,11 +3,13 @@ package com.jsoniter;
 import com.jsoniter.spi.Decoder;
 import com.jsoniter.spi.EmptyExtension;
 import com.jsoniter.spi.JsoniterSpi;
+import com.jsoniter.spi.TypeLiteral;
 import junit.framework.TestCase;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Date;
+import java.util.HashMap;
 
 public class TestCustomizeType extends TestCase {
 
@@ -94,4 +96,82 @@ public class TestCustomizeType extends TestCase {
         MyObject obj = (MyObject) iter.read(MyInterface.class);
         assertEquals(1481365190000L, obj.field1);
     }
+
+    public static class MyDate3 {
+        Date date;
+    }
+
+    public static class FieldWithMyDate3 {
+        public MyDate3 field;
+    }
+
+    public void test_add_many_decoders() throws IOException {
+        HashMap<String, Decoder> decoders = new HashMap<String, Decoder>();
+        decoders.put(TypeLiteral.create(MyDate3.class).getDecoderCacheKey(), new Decoder() {
+            @Override
+            public Object decode(final JsonIterator iter) throws IOException {
+                return new MyDate3() {{
+                    date = new Date(iter.readLong());
+                }};
+            }
+        });
+        JsoniterSpi.addNewDecoders(decoders);
+        JsonIterator iter = JsonIterator.parse("{'field': 1481365190000}".replace('\'', '"'));
+        FieldWithMyDate3 obj = iter.read(FieldWithMyDate3.class);
+        assertEquals(1481365190000L, obj.field.date.getTime());
+    }
+
+    public static class MyDate4 {
+        Date date;
+    }
+
+    public static class FieldWithMyDate4 {
+        public MyDate4 field;
+    }
+
+    public void test_register_after_generated() throws IOException {
+        JsoniterSpi.registerTypeDecoder(MyDate4.class, new Decoder() {
+            @Override
+            public Object decode(final JsonIterator iter) throws IOException {
+                return new MyDate4() {{
+                    date = new Date(iter.readLong());
+                }};
+            }
+        });
+        FieldWithMyDate4 obj = JsonIterator.deserialize("{'field': 1000}".replace('\'', '"'), FieldWithMyDate4.class);
+        assertEquals(1000L, obj.field.date.getTime());
+        JsoniterSpi.registerTypeDecoder(MyDate4.class, new Decoder() {
+            @Override
+            public Object decode(final JsonIterator iter) throws IOException {
+                return new MyDate4() {{
+                    date = new Date(iter.readLong() * 1000);
+                }};
+            }
+        });
+        obj = JsonIterator.deserialize("{'field': 1000}".replace('\'', '"'), FieldWithMyDate4.class);
+        assertEquals(1000000L, obj.field.date.getTime());
+    }
+
+    public static class IntFieldRegisteredAgain {
+        public int field;
+    }
+
+    public void test_register_typed_decoder_after_generated() throws IOException {
+        JsoniterSpi.registerPropertyDecoder(IntFieldRegisteredAgain.class, "field", new Decoder.IntDecoder() {
+            @Override
+            public int decodeInt(JsonIterator iter) throws IOException {
+                return iter.readInt() + 1;
+            }
+        });
+        IntFieldRegisteredAgain obj = JsonIterator.deserialize("{'field': 100}".replace('\'', '"'), IntFieldRegisteredAgain.class);
+        assertEquals(101, obj.field);
+        JsoniterSpi.registerPropertyDecoder(IntFieldRegisteredAgain.class, "field", new Decoder.IntDecoder() {
+            @Override
+            public int decodeInt(JsonIterator iter) throws IOException {
+                return iter.readInt() * 2;
+            }
+        });
+        obj = JsonIterator.deserialize("{'field': 100}".replace('\'', '"'), IntFieldRegisteredAgain.class);
+        assertEquals(200, obj.field);
+    }
 }
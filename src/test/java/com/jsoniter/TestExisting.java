@@ -68,4 +68,51 @@ public class TestExisting extends TestCase {
         HashMap<String, Object> map2 = iter.read(map1);
         assertEquals("b", map2.get("a"));
     }
+
+    public void test_reuse_nested_object() throws IOException {
+        TestObj2 testObj = new TestObj2();
+        TestObj1 nested = new TestObj1();
+        testObj.field4 = nested;
+        JsonIterator iter = JsonIterator.parse("{ 'field4': {'field2': 'hello'} }".replace('\'', '"'));
+        testObj = iter.read(testObj);
+        assertSame(nested, testObj.field4);
+        assertEquals("hello", nested.field2);
+    }
+
+    public static class TestObj3 {
+        public StringBuilder name;
+        public List<TestObj1> items;
+    }
+
+    public void test_recycle() throws IOException {
+        TestObj3 testObj = new TestObj3();
+        StringBuilder name = new StringBuilder("old name");
+        testObj.name = name;
+        List<TestObj1> items = new ArrayList<TestObj1>();
+        TestObj1 item = new TestObj1();
+        items.add(item);
+        items.add(new TestObj1());
+        items.add(new TestObj1());
+        testObj.items = items;
+        JsonIterator iter = JsonIterator.parse(
+                "{ 'name': 'new', 'items': [{'field1': 'a'}, {'field1': 'b'}] }".replace('\'', '"'));
+        testObj = iter.read(testObj, true);
+        assertSame(name, testObj.name);
+        assertEquals("new", name.toString());
+        assertSame(items, testObj.items);
+        assertEquals(2, items.size());
+        assertSame(item, items.get(0));
+        assertEquals("a", item.field1);
+        assertEquals("b", items.get(1).field1);
+        iter.reset("{ 'items': [{}, {}, {'field1': 'c'}] }".replace('\'', '"').getBytes());
+        testObj = iter.read(testObj, true);
+        assertSame(item, testObj.items.get(0));
+        assertEquals("c", testObj.items.get(2).field1);
+        // only the read asking for it recycles
+        iter.reset("{ 'items': [{'field1': 'd'}] }".replace('\'', '"').getBytes());
+        testObj = iter.read(testObj);
+        assertNotSame(item, testObj.items.get(0));
+        assertEquals("a", item.field1);
+        assertEquals("d", testObj.items.get(0).field1);
+    }
 }
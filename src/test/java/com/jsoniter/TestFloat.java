@@ -44,11 +44,20 @@ public class TestFloat extends TestCase {
         assertEquals(720368.54775807d, parseDouble("720368.547758075,"), 0.01f);
     }
 
+    public void test_exponent_after_fraction() throws IOException {
+        assertEquals(1.5e-9d, parseDouble("1.5e-9,"));
+        assertEquals(1.5e-9d, parseDouble("1.5E-9,"));
+        assertEquals(1.5e9d, parseDouble("1.5e+9,"));
+        assertEquals(2e3d, parseDouble("2E3,"));
+        assertEquals(1.5e9f, parseFloat("1.5E9,"));
+    }
+
     @Category(StreamingCategory.class)
     public void test_streaming() throws IOException {
         isStreaming = true;
         test_positive_negative();
         test_decimal_places();
+        test_exponent_after_fraction();
     }
 
     private float parseFloat(String input) throws IOException {
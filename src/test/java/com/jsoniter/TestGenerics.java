@@ -59,6 +59,30 @@ public class TestGenerics extends TestCase {
         assertEquals(Integer.valueOf(1), val.get("hello"));
     }
 
+    public enum Color {
+        RED, GREEN
+    }
+
+    public void test_non_string_map_keys() throws IOException {
+        Map<Long, String> longKeys = JsonIterator.deserialize("{\"10000000000\": \"a\", \"-1\":\"b\"}",
+                new TypeLiteral<Map<Long, String>>() {
+                });
+        assertEquals("a", longKeys.get(10000000000L));
+        assertEquals("b", longKeys.get(-1L));
+        Map<Integer, Integer> intKeys = JsonIterator.deserialize("{\"1\":2}", new TypeLiteral<HashMap<Integer, Integer>>() {
+        });
+        assertEquals(Integer.valueOf(2), intKeys.get(1));
+        Map<UUID, Integer> uuidKeys = JsonIterator.deserialize("{\"123e4567-e89b-12d3-a456-426655440000\":1}",
+                new TypeLiteral<Map<UUID, Integer>>() {
+                });
+        assertEquals(Integer.valueOf(1), uuidKeys.get(UUID.fromString("123e4567-e89b-12d3-a456-426655440000")));
+        EnumMap<Color, Integer> enumKeys = JsonIterator.deserialize("{\"GREEN\":1,\"RED\":2}",
+                new TypeLiteral<EnumMap<Color, Integer>>() {
+                });
+        assertEquals(Integer.valueOf(1), enumKeys.get(Color.GREEN));
+        assertEquals(Integer.valueOf(2), enumKeys.get(Color.RED));
+    }
+
     public void test_list_of_list() throws Exception {
         JsonIterator iter = JsonIterator.parse("[[1,2],[3,4]]");
         List<List<Integer>> listOfList = iter.read(new TypeLiteral<List<List<Integer>>>() {
@@ -73,4 +73,23 @@ public class TestNested extends TestCase {
         com.jsoniter.output.TestNested.TestObject3 obj = new com.jsoniter.output.TestNested.TestObject3();
         assertNull(JsonIterator.deserialize("{\"reference\":null}", TestObject3.class).reference);
     }
+
+    public static class TestObject4 {
+        public int value;
+        public TestObject4 next;
+        public TestObject5 other;
+    }
+
+    public static class TestObject5 {
+        public TestObject4 back;
+    }
+
+    public void test_recursive_structure() {
+        TestObject4 obj = JsonIterator.deserialize(
+                "{\"value\":1,\"next\":{\"value\":2,\"other\":{\"back\":{\"value\":3}}}}", TestObject4.class);
+        assertEquals(1, obj.value);
+        assertEquals(2, obj.next.value);
+        assertEquals(3, obj.next.other.back.value);
+        assertNull(obj.next.next);
+    }
 }
@@ -4,16 +4,32 @@ import com.jsoniter.annotation.JsonProperty;
 import com.jsoniter.annotation.JsoniterAnnotationSupport;
 import com.jsoniter.any.Any;
 import com.jsoniter.fuzzy.MaybeEmptyArrayDecoder;
+import com.jsoniter.output.JsonStream;
+import com.jsoniter.spi.Binding;
+import com.jsoniter.spi.ClassDescriptor;
+import com.jsoniter.spi.Decoder;
 import com.jsoniter.spi.EmptyExtension;
 import com.jsoniter.spi.JsonException;
 import com.jsoniter.spi.JsoniterSpi;
+import com.jsoniter.spi.ParameterizedTypeImpl;
+import com.jsoniter.spi.TypeLiteral;
 import junit.framework.TestCase;
+import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class TestObject extends TestCase {
 
@@ -60,6 +76,59 @@ public class TestObject extends TestCase {
         assertEquals("hello", ((Map)iter.read()).get("field1"));
     }
 
+    public void test_compact_untyped() throws IOException {
+        String input = "{\"b\":1,\"a\":10000000000,\"c\":1.5,\"d\":[2,{\"e\":null}],\"f\":-3e2," +
+                "\"g\":1,\"h\":2,\"i\":3,\"j\":4}";
+        Map map = (Map) JsonIterator.parse(input).read(Object.class, true);
+        assertTrue(map instanceof CompactMap);
+        assertEquals(Arrays.asList("b", "a", "c", "d", "f", "g", "h", "i", "j"), new ArrayList(map.keySet()));
+        assertEquals(1, map.get("b"));
+        assertEquals(10000000000L, map.get("a"));
+        assertEquals(1.5, map.get("c"));
+        assertEquals(-300.0, map.get("f"));
+        assertEquals(2, ((List) map.get("d")).get(0));
+        Map nested = (Map) ((List) map.get("d")).get(1);
+        assertTrue(nested.containsKey("e"));
+        Map again = (Map) JsonIterator.parse("{\"e\":1}").read(Object.class, true);
+        assertSame(nested.keySet().iterator().next(), again.keySet().iterator().next());
+        assertEquals(4, map.remove("j"));
+        assertEquals(8, map.size());
+        assertEquals(42, JsonIterator.parse("42").read(Object.class, true));
+        assertEquals(Long.MAX_VALUE, JsonIterator.parse("9223372036854775807").read(Object.class, true));
+        assertEquals(Long.MIN_VALUE, JsonIterator.parse("[-9223372036854775808]").read(List.class, true).get(0));
+        assertEquals(9223372036854775808.0, JsonIterator.parse("9223372036854775808").read(Object.class, true));
+        // only for the read asked
+        JsonIterator iter = JsonIterator.parse("{\"e\":1}");
+        assertTrue(iter.read(new TypeLiteral<Object>() {}, true) instanceof CompactMap);
+        iter.reset(iter.buf);
+        assertTrue(iter.read() instanceof HashMap);
+    }
+
+    public void test_compact_map() {
+        CompactMap map = new CompactMap();
+        for (int i = 0; i < 20; i++) {
+            map.put("k" + i, i);
+        }
+        map.put("k3", -3);
+        assertEquals(20, map.size());
+        assertEquals(-3, map.get("k3"));
+        Iterator<Map.Entry<String, Object>> iter = map.entrySet().iterator();
+        assertEquals("k0", iter.next().getKey());
+        CompactMap small = new CompactMap();
+        small.put("a", 1);
+        small.put("b", 2);
+        small.put("c", 3);
+        iter = small.entrySet().iterator();
+        iter.next();
+        iter.remove();
+        assertEquals("b", iter.next().getKey());
+        assertEquals(2, small.size());
+        assertEquals(new HashMap<String, Object>() {{
+            put("b", 2);
+            put("c", 3);
+        }}, small);
+    }
+
     public void test_two_fields() throws IOException {
 //        JsonIterator.setMode(DecodingMode.DYNAMIC_MODE_AND_MATCH_FIELD_WITH_HASH);
         JsonIterator iter = JsonIterator.parse("{ 'field1' : 'hello' , 'field2': 'world' }".replace('\'', '"'));
@@ -89,6 +158,105 @@ public class TestObject extends TestCase {
         assertEquals(Arrays.asList("field1", "field2"), fields);
     }
 
+    public static class TestObject15 {
+        public int id;
+        public String note;
+        public TestObject16 item;
+    }
+
+    public static class TestObject16 {
+        public String sku;
+        public int qty;
+    }
+
+    public void test_field_mask() throws IOException {
+        FieldMask fieldMask = new FieldMask()
+                .include(TestObject15.class, "id", "item")
+                .include(TestObject16.class, "qty");
+        JsonIterator iter = JsonIterator.parse(
+                "{\"note\":\"\\u0068i\",\"id\":1,\"item\":{\"sku\":{\"not\":\"a string\"},\"qty\":2}}");
+        TestObject15 obj = iter.read(TestObject15.class, fieldMask);
+        assertEquals(1, obj.id);
+        assertNull(obj.note);
+        assertNull(obj.item.sku);
+        assertEquals(2, obj.item.qty);
+        // the mask is only for the read it was passed to
+        iter = JsonIterator.parse("{\"note\":\"hi\",\"item\":{\"sku\":\"a\"}}");
+        obj = iter.read(TestObject15.class);
+        assertEquals("hi", obj.note);
+        assertEquals("a", obj.item.sku);
+    }
+
+    public static class TestObject20 {
+        public TestObject15 value;
+    }
+
+    public void test_field_mask_keeps_existing_values() throws IOException {
+        final TestObject15 existing = new TestObject15();
+        existing.note = "kept";
+        JsoniterSpi.registerTypeDecoder(TestObject20.class, new Decoder() {
+            @Override
+            public Object decode(JsonIterator iter) throws IOException {
+                TestObject20 obj = new TestObject20();
+                obj.value = iter.read(existing);
+                return obj;
+            }
+        });
+        JsonIterator iter = JsonIterator.parse("{\"note\":\"hi\",\"id\":1}");
+        TestObject15 obj = iter.read(TestObject20.class, new FieldMask().include(TestObject15.class, "id")).value;
+        assertEquals(1, obj.id);
+        assertEquals("kept", obj.note);
+    }
+
+    public static class TestObject17 {
+        public String type;
+        public double amount;
+    }
+
+    public void test_record_filter() throws IOException {
+        RecordFilter filter = new RecordFilter()
+                .equal("type", "purchase")
+                .greaterThan("amount", 100)
+                .lessThan("amount", 1000);
+        String lines = "{\"type\":\"purchase\",\"amount\":150}\n" +
+                "{\"amount\":150,\"type\":\"refund\",\"items\":[{\"type\":\"purchase\"}]}\n" +
+                "{\"type\":\"purchase\",\"amount\":50}\n" +
+                "{\"type\":\"purchase\"}\n" +
+                "{\"note\":\"}\",\"type\":\"p\\u0075rchase\",\"amount\":999.5}\n";
+        for (String input : Arrays.asList(lines, "[" + lines.trim().replace("\n", ",") + "]")) {
+            RecordIterator<TestObject17> records = new RecordIterator<TestObject17>(
+                    JsonIterator.parse(input), TestObject17.class, filter);
+            assertEquals(150.0, records.next().amount);
+            assertEquals(999.5, records.next().amount);
+            assertFalse(records.hasNext());
+        }
+        assertTrue(filter.accept(JsonIterator.parse("{\"ty\\u0070e\":\"purchase\",\"amount\":150}")));
+        RecordIterator<TestObject17> all = new RecordIterator<TestObject17>(
+                JsonIterator.parse("[]"), TestObject17.class, null);
+        assertFalse(all.hasNext());
+        all = new RecordIterator<TestObject17>(JsonIterator.parse(lines), TestObject17.class, null);
+        int count = 0;
+        while (all.hasNext()) {
+            all.next();
+            count++;
+        }
+        assertEquals(5, count);
+    }
+
+    @Category(StreamingCategory.class)
+    public void test_record_iterator_in_streaming() throws IOException {
+        String lines = "{\"type\":\"purchase\",\"amount\":150}\n\n  {\"type\":\"refund\",\"amount\":20}\n";
+        RecordIterator<TestObject17> all = new RecordIterator<TestObject17>(JsonIterator.parse(
+                new ByteArrayInputStream(lines.getBytes()), 8), TestObject17.class, null);
+        assertEquals(150.0, all.next().amount);
+        assertEquals(20.0, all.next().amount);
+        assertFalse(all.hasNext());
+        RecordIterator<TestObject17> refunds = new RecordIterator<TestObject17>(JsonIterator.parse(
+                new ByteArrayInputStream(lines.getBytes()), 8), TestObject17.class, new RecordFilter().equal("type", "refund"));
+        assertEquals(20.0, refunds.next().amount);
+        assertFalse(refunds.hasNext());
+    }
+
     public void test_read_null() throws IOException {
         JsonIterator iter = JsonIterator.parse("null".replace('\'', '"'));
         assertTrue(iter.readNull());
@@ -238,4 +406,245 @@ public class TestObject extends TestCase {
         any.asMap().put("field4", Any.wrap(4));
         assertEquals("{\"field1\":1,\"field3\":3,\"field2\":2,\"field4\":4}", any.toString());
     }
+
+    public static class TestObject8 {
+        public String costarring;
+        public String liquid;
+        public String altarage;
+    }
+
+    public void test_field_names_of_same_hash() throws IOException {
+        TestObject8 obj = JsonIterator.deserialize(
+                "{\"costarring\":\"1\",\"liquid\":\"2\",\"zinke\":\"3\"}", TestObject8.class);
+        assertEquals("1", obj.costarring);
+        assertEquals("2", obj.liquid);
+        assertNull(obj.altarage);
+    }
+
+    public static class TestObject9 {
+        public int fieldWithAVeryLongName;
+        public int fieldWithAVeryLongNamf;
+        public int f;
+    }
+
+    public void test_long_field_names() throws IOException {
+        TestObject9 obj = JsonIterator.deserialize(
+                "{\"fieldWithAVeryLongName\":1,\"fieldWithAVeryLongNamf\":2,\"f\":3,\"fieldWithAVeryLongNamg\":4}", TestObject9.class);
+        assertEquals(1, obj.fieldWithAVeryLongName);
+        assertEquals(2, obj.fieldWithAVeryLongNamf);
+        assertEquals(3, obj.f);
+    }
+
+    public void test_fields_out_of_order() throws IOException {
+        TestObject9 obj = JsonIterator.deserialize(
+                "{\"fieldWithAVeryLongName\":1,\"unknown\":0,\"f\":3,\"fieldWithAVeryLongNamf\":2}", TestObject9.class);
+        assertEquals(1, obj.fieldWithAVeryLongName);
+        assertEquals(2, obj.fieldWithAVeryLongNamf);
+        assertEquals(3, obj.f);
+        obj = JsonIterator.deserialize("{\"f\":3}", TestObject9.class);
+        assertEquals(3, obj.f);
+    }
+
+    public static class TestObject10 {
+        public int field1;
+        public String field2;
+    }
+
+    public void test_tiered_mode() throws Exception {
+        DecodingMode mode = Codegen.mode;
+        JsonIterator.setMode(DecodingMode.TIERED_MODE);
+        // never promoted in background, the test promotes by itself
+        JsonIterator.setTieredThreshold(Integer.MAX_VALUE);
+        try {
+            String cacheKey = TypeLiteral.create(TestObject10.class).getDecoderCacheKey();
+            for (int i = 0; i < 3; i++) {
+                TestObject10 obj = JsonIterator.deserialize("{\"field1\":1,\"field2\":\"a\"}", TestObject10.class);
+                assertEquals(1, obj.field1);
+            }
+            Codegen.promote((Codegen.TieredDecoder) JsoniterSpi.getDecoder(cacheKey));
+            assertFalse(JsoniterSpi.getDecoder(cacheKey) instanceof Codegen.TieredDecoder);
+            TestObject10 obj = JsonIterator.deserialize("{\"field1\":2,\"field2\":\"b\"}", TestObject10.class);
+            assertEquals(2, obj.field1);
+            assertEquals("b", obj.field2);
+        } finally {
+            JsonIterator.setTieredThreshold(1000);
+            JsonIterator.setMode(mode);
+        }
+    }
+
+    public static class TestObject11 {
+        public int field1;
+    }
+
+    public void test_warm_up() throws IOException {
+        TypeLiteral<TestObject11> typeLiteral = TypeLiteral.create(TestObject11.class);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Map<TypeLiteral, Long> elapsed = JsoniterSpi.warmUp(Arrays.asList(typeLiteral), executor);
+        executor.shutdown();
+        assertEquals(1, elapsed.size());
+        assertNotNull(JsoniterSpi.getDecoder(typeLiteral.getDecoderCacheKey()));
+        assertNotNull(JsoniterSpi.getEncoder(typeLiteral.getEncoderCacheKey()));
+        assertEquals(1, JsonIterator.deserialize("{\"field1\":1}", TestObject11.class).field1);
+    }
+
+    public static class TestObject18 {
+        public TestObject19 field1;
+    }
+
+    public static class TestObject19 {
+        public TestObject18 field1;
+    }
+
+    public void test_warm_up_referencing_types_in_parallel() throws IOException {
+        TypeLiteral<TestObject18> typeLiteral18 = TypeLiteral.create(TestObject18.class);
+        TypeLiteral<TestObject19> typeLiteral19 = TypeLiteral.create(TestObject19.class);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        JsoniterSpi.warmUp(Arrays.asList(typeLiteral18, typeLiteral19, typeLiteral18, typeLiteral19), executor);
+        executor.shutdown();
+        TestObject18 obj = JsonIterator.deserialize("{\"field1\":{\"field1\":{}}}", TestObject18.class);
+        assertNotNull(obj.field1.field1);
+        assertEquals("{\"field1\":{\"field1\":{}}}", JsonStream.serialize(obj));
+    }
+
+    public static class TestObject12 {
+        public int f0, f1, f2, f3, f4, f5, f6, f7, f8, f9;
+        public int f10, f11, f12, f13, f14, f15, f16, f17, f18, f19;
+        public int f20, f21, f22, f23, f24, f25, f26, f27, f28, f29;
+        public int f30, f31, f32, f33, f34, f35, f36, f37, f38, f39;
+        public int f40, f41, f42, f43, f44, f45, f46, f47, f48, f49;
+        public int f50, f51, f52, f53, f54, f55, f56, f57, f58, f59;
+        public int f60, f61, f62, f63, f64, f65, f66, f67, f68, f69;
+    }
+
+    public static class TestObject13 {
+        public int f0, f1, f2, f3, f4, f5, f6, f7, f8, f9;
+        public int f10, f11, f12, f13, f14, f15, f16, f17, f18, f19;
+        public int f20, f21, f22, f23, f24, f25, f26, f27, f28, f29;
+        public int f30, f31, f32, f33, f34, f35, f36, f37, f38, f39;
+        public int f40, f41, f42, f43, f44, f45, f46, f47, f48, f49;
+        public int f50, f51, f52, f53, f54, f55, f56, f57, f58, f59;
+        public int f60, f61, f62, f63, f64, f65, f66, f67, f68, f69;
+    }
+
+    private static String wideObject(int from, int to, int step) {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = from; i != to; i += step) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("\"f").append(i).append("\":").append(i);
+        }
+        return json.append('}').toString();
+    }
+
+    public void test_wide_object() throws IOException {
+        TestObject12 obj = JsonIterator.deserialize(wideObject(0, 70, 1), TestObject12.class);
+        assertEquals(0, obj.f0);
+        assertEquals(35, obj.f35);
+        assertEquals(69, obj.f69);
+        obj = JsonIterator.deserialize(wideObject(69, -1, -1), TestObject12.class);
+        assertEquals(35, obj.f35);
+        assertEquals(69, obj.f69);
+        obj = JsonIterator.parse("{\"f1\":1,\"f100\":[100],\"f68\":68}").read(obj);
+        assertEquals(1, obj.f1);
+        assertEquals(35, obj.f35);
+        assertEquals(68, obj.f68);
+    }
+
+    public void test_field_mask_of_wide_object() throws IOException {
+        FieldMask fieldMask = new FieldMask().include(TestObject12.class, "f1", "f68");
+        TestObject12 obj = JsonIterator.parse(wideObject(0, 70, 1)).read(TestObject12.class, fieldMask);
+        assertEquals(1, obj.f1);
+        assertEquals(0, obj.f35);
+        assertEquals(68, obj.f68);
+        assertEquals(0, obj.f69);
+        // the mask is resolved again once it changes
+        fieldMask.include(TestObject12.class, "f69");
+        obj = JsonIterator.parse(wideObject(0, 70, 1)).read(TestObject12.class, fieldMask);
+        assertEquals(0, obj.f35);
+        assertEquals(69, obj.f69);
+    }
+
+    public void test_more_than_63_required_fields() throws IOException {
+        if (Codegen.mode == DecodingMode.REFLECTION_MODE) {
+            // reflection decoder tracks at most 63 required fields
+            return;
+        }
+        JsoniterSpi.registerExtension(new EmptyExtension() {
+            @Override
+            public void updateClassDescriptor(ClassDescriptor desc) {
+                if (desc.clazz == TestObject13.class) {
+                    for (Binding binding : desc.fields) {
+                        binding.asMissingWhenNotPresent = true;
+                    }
+                }
+            }
+        });
+        assertEquals(69, JsonIterator.deserialize(wideObject(0, 70, 1), TestObject13.class).f69);
+        try {
+            JsonIterator.deserialize(wideObject(0, 66, 1), TestObject13.class);
+            fail();
+        } catch (JsonException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("[f66, f67, f68, f69]"));
+        }
+    }
+
+    public static class TestObject14 {
+        public int field1;
+    }
+
+    public void test_unload_codecs() throws Exception {
+        WeakReference<ClassLoader> plugin = usePlugin();
+        for (int i = 0; i < 50 && plugin.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(plugin.get());
+    }
+
+    // loads its own copy of TestObject14 (and its declaring class), like a plugin, and discards it
+    private static WeakReference<ClassLoader> usePlugin() throws Exception {
+        ClassLoader plugin = new ClassLoader(TestObject.class.getClassLoader()) {
+            @Override
+            protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (!TestObject14.class.getName().equals(name) && !TestObject.class.getName().equals(name)) {
+                    return super.loadClass(name, resolve);
+                }
+                Class clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    byte[] bytecode = readClass(name);
+                    clazz = defineClass(name, bytecode, 0, bytecode.length);
+                }
+                return clazz;
+            }
+        };
+        Class clazz = plugin.loadClass(TestObject14.class.getName());
+        Object obj = JsonIterator.deserialize("{\"field1\":1}", clazz);
+        assertEquals(1, clazz.getField("field1").get(obj));
+        assertEquals("{\"field1\":1}", JsonStream.serialize(obj));
+        assertEquals(1, ((List) JsonIterator.deserialize("[{\"field1\":1}]",
+                TypeLiteral.create(new ParameterizedTypeImpl(new Type[]{clazz}, null, List.class)))).size());
+        String cacheKey = TypeLiteral.create(clazz).getDecoderCacheKey();
+        JsoniterSpi.unloadCodecs(plugin);
+        assertNull(JsoniterSpi.getDecoder(cacheKey));
+        return new WeakReference<ClassLoader>(plugin);
+    }
+
+    private static byte[] readClass(String name) {
+        InputStream in = TestObject.class.getResourceAsStream("/" + name.replace('.', '/') + ".class");
+        try {
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buf = new byte[1024];
+                for (int n = in.read(buf); n > 0; n = in.read(buf)) {
+                    out.write(buf, 0, n);
+                }
+                return out.toByteArray();
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
 }
@@ -11,6 +11,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 
 public class TestReadAny extends TestCase {
 
@@ -157,6 +159,112 @@ public class TestReadAny extends TestCase {
         assertEquals(1, any.toInt("a"));
     }
 
+    private final static Any.Key USER_ID = Any.Key.of("user_id");
+
+    public void test_get_by_key() throws IOException {
+        Any any = JsonIterator.deserialize("{\"a\":{\"user_id\":0},\"user\\u005fid\":1,\"b\":[3]}");
+        // the escaped name is decoded to compare
+        assertEquals(1, any.toInt(USER_ID));
+        assertEquals(1, any.toInt("user_id"));
+        Any found = any.get(USER_ID);
+        assertEquals(3, any.get("b").toInt(0));
+        assertEquals(ValueType.INVALID, any.get(Any.Key.of("c")).valueType());
+        // the miss is remembered
+        assertEquals(ValueType.INVALID, any.get("c").valueType());
+        // the fields before are parsed later, the found value is kept
+        assertEquals(3, any.size());
+        assertSame(found, any.get(USER_ID));
+        assertEquals(0, any.toInt(Any.Key.of("a"), USER_ID));
+        assertEquals(1, Any.wrap(new HashMap<String, Integer>() {{
+            put("user_id", 1);
+        }}).toInt(USER_ID));
+    }
+
+    public void test_stream() throws IOException {
+        Any any = JsonIterator.deserialize("[1,[2],{\"a\":3}]");
+        Iterator<Any> iter = any.stream();
+        assertEquals(1, iter.next().toInt());
+        assertEquals(2, iter.next().toInt(0));
+        assertEquals(3, iter.next().toInt("a"));
+        assertFalse(iter.hasNext());
+        // nothing is cached, the array is still parsed on demand
+        assertEquals(3, any.size());
+        Any.EntryIterator entries = JsonIterator.deserialize("{\"a\":1,\"b\":[2]}").streamEntries();
+        assertTrue(entries.next());
+        assertEquals("a", entries.key());
+        assertEquals(1, entries.value().toInt());
+        assertTrue(entries.next());
+        assertEquals("b", entries.key());
+        assertEquals(2, entries.value().toInt(0));
+        assertFalse(entries.next());
+    }
+
+    public void test_entries_after_get() throws IOException {
+        Any any = JsonIterator.deserialize("{\"a\":1,\"b\":2,\"c\":3}");
+        assertEquals(1, any.toInt("a"));
+        HashSet<String> keys = new HashSet<String>();
+        Any.EntryIterator entries = any.entries();
+        while (entries.next()) {
+            keys.add(entries.key());
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("a", "b", "c")), keys);
+        assertEquals(3, any.toInt("c"));
+    }
+
+    public void test_json_path() throws IOException {
+        String json = "{\"id\":1,\"orders\":[" +
+                "{\"items\":[{\"sku\":\"a\",\"qty\":1},{\"sku\":\"b\",\"qty\":2}]}," +
+                "{\"items\":[{\"sku\":\"c\",\"qty\":3,\"tag\":null}],\"note\":{\"x\":[1]}}]}";
+        JsonPath path = JsonPath.compile("$.orders[*].items[?(@.qty>1)].sku");
+        for (List<Any> skus : Arrays.asList(path.eval(json), path.eval(JsonIterator.deserialize(json)))) {
+            assertEquals(2, skus.size());
+            assertEquals("b", skus.get(0).toString());
+            assertEquals("c", skus.get(1).toString());
+        }
+        assertEquals(3, JsonPath.compile("$['orders'][1].items[0].qty").eval(json).get(0).toInt());
+        assertEquals(0, JsonPath.compile("$.orders[2]").eval(json).size());
+        assertEquals(0, JsonPath.compile("$.id.x").eval(json).size());
+        assertEquals(1, JsonPath.compile("$.orders[*].items[?(@.tag == null)]").eval(json).size());
+        assertEquals(2, JsonPath.compile("$.orders[*].items").eval(json).size());
+        assertEquals("a", JsonPath.compile("$.orders[0].items[?(@.sku != 'b')].sku").eval(json).get(0).toString());
+        assertEquals(1, JsonPath.compile("$.orders[*].note.*[0]").eval(json).get(0).toInt());
+        assertEquals(1, JsonPath.compile("$.user_id").eval("{\"user\\u005fid\":1}").get(0).toInt());
+        try {
+            JsonPath.compile("$..sku");
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
+    public void test_projection() throws IOException {
+        JsonProjection projection = new JsonProjection();
+        int id = projection.addLong("$.id");
+        int name = projection.addString("$.user['name']");
+        int score = projection.addDouble("$.user.scores[1]");
+        int tags = projection.addSlice("$.tags");
+        int missing = projection.addLong("$.user.age");
+        JsonProjection.Result result = projection.newResult();
+        projection.project(("{\"user\":{\"scores\":[1,2.5,{}],\"n\\u0061me\":\"a\",\"x\":[{}]}," +
+                "\"tags\":[\"b\", {}],\"id\":7}").getBytes(), result);
+        assertEquals(7, result.getLong(id));
+        assertEquals("a", result.getString(name));
+        assertEquals(2.5, result.getDouble(score));
+        assertEquals("[\"b\", {}]", result.getSlice(tags).toString());
+        assertFalse(result.has(missing));
+        // the result is reused for the next document
+        projection.project("{\"id\":8,\"user\":{\"age\":null}}".getBytes(), result);
+        assertEquals(8, result.getLong(id));
+        assertFalse(result.has(name));
+        assertNull(result.getString(name));
+        assertEquals(0.0, result.getDouble(score));
+        assertFalse(result.has(missing));
+        try {
+            projection.addLong("$.user.name.first");
+            fail();
+        } catch (JsonException e) {
+        }
+    }
+
     public void test_require_path() throws IOException {
         assertNotNull(JsonIterator.deserialize("null").get());
         try {
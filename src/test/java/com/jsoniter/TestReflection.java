@@ -1,5 +1,8 @@
 package com.jsoniter;
 
+import com.jsoniter.annotation.JsonCreator;
+import com.jsoniter.annotation.JsonProperty;
+import com.jsoniter.annotation.JsoniterAnnotationSupport;
 import com.jsoniter.spi.JsoniterSpi;
 import junit.framework.TestCase;
 
@@ -7,6 +10,10 @@ import java.io.IOException;
 
 public class TestReflection extends TestCase {
 
+    static {
+        JsoniterAnnotationSupport.enable();
+    }
+
     public static class PackageLocal {
         String field;
     }
@@ -38,4 +45,42 @@ public class TestReflection extends TestCase {
         ObjectWithInt obj = iter.read(ObjectWithInt.class);
         assertEquals(100, obj.field);
     }
+
+    public static class Point {
+        private final int x;
+        private final int y;
+
+        @JsonCreator
+        public Point(@JsonProperty("x") int x, @JsonProperty("y") int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    public static class Line {
+        private final Point from;
+        private final Point to;
+
+        @JsonCreator
+        public Line(@JsonProperty("from") Point from, @JsonProperty("to") Point to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    public void test_ctor_temp_objects() throws IOException {
+        JsoniterSpi.registerTypeDecoder(Point.class, ReflectionDecoderFactory.create(Point.class));
+        JsoniterSpi.registerTypeDecoder(Line.class, ReflectionDecoderFactory.create(Line.class));
+        JsonIterator iter = JsonIterator.parse("{'from': {'x': 1, 'y': 2}, 'to': {'y': 4, 'x': 3}}".replace('\'', '"'));
+        Line line = iter.read(Line.class);
+        assertEquals(1, line.from.x);
+        assertEquals(2, line.from.y);
+        assertEquals(3, line.to.x);
+        assertEquals(4, line.to.y);
+        iter.reset("{'to': {'x': 5, 'y': 6}}".replace('\'', '"').getBytes());
+        line = iter.read(Line.class);
+        assertNull(line.from);
+        assertEquals(5, line.to.x);
+        assertEquals(6, line.to.y);
+    }
 }
@@ -18,4 +18,10 @@ public class TestSlice extends TestCase {
         assertEquals("hello", map.get(Slice.make("hello")));
         assertEquals("world", map.get(Slice.make("world")));
     }
+
+    public void test_word_at() {
+        Slice slice = new Slice("_abcdefgh".getBytes(), 1, 9);
+        assertEquals(0x6867666564636261L, slice.longAt(0));
+        assertEquals(0x68676665, slice.intAt(4));
+    }
 }
@@ -1,10 +1,13 @@
 package com.jsoniter.output;
 
 import com.jsoniter.annotation.JsonIgnore;
+import com.jsoniter.annotation.JsonObject;
 import com.jsoniter.annotation.JsonProperty;
 import com.jsoniter.annotation.JsonUnwrapper;
 import com.jsoniter.annotation.JsoniterAnnotationSupport;
 import com.jsoniter.spi.Encoder;
+import com.jsoniter.spi.JsoniterSpi;
+import com.jsoniter.spi.TypeLiteral;
 import junit.framework.TestCase;
 
 import java.io.ByteArrayOutputStream;
@@ -109,4 +112,17 @@ public class TestAnnotation extends TestCase {
         stream.close();
         assertEquals("{\"hello\":0}", baos.toString());
     }
+
+    @JsonObject(encodingMode = EncodingMode.DYNAMIC_MODE)
+    public static class TestObject7 {
+        public int field1;
+    }
+
+    public void test_mode_of_type() throws IOException {
+        TestObject7 obj = new TestObject7();
+        obj.field1 = 100;
+        assertEquals("{\"field1\":100}", JsonStream.serialize(obj));
+        String cacheKey = TypeLiteral.create(TestObject7.class).getEncoderCacheKey();
+        assertEquals(cacheKey, JsoniterSpi.getEncoder(cacheKey).getClass().getName());
+    }
 }
@@ -1,5 +1,8 @@
 package com.jsoniter.output;
 
+import com.jsoniter.DoubleList;
+import com.jsoniter.IntList;
+import com.jsoniter.LongList;
 import com.jsoniter.spi.TypeLiteral;
 import junit.framework.TestCase;
 
@@ -46,6 +49,18 @@ public class TestArray extends TestCase {
         assertEquals("['hello','world']".replace('\'', '"'), baos.toString());
     }
 
+    public void test_collection_of_mixed_classes() throws IOException {
+        ArrayList list = new ArrayList();
+        list.add("hello");
+        list.add(1);
+        list.add(null);
+        list.add("world");
+        list.add(true);
+        stream.writeVal(list);
+        stream.close();
+        assertEquals("['hello',1,null,'world',true]".replace('\'', '"'), baos.toString());
+    }
+
     public void test_empty_array() throws IOException {
         stream.writeVal(new String[0]);
         stream.close();
@@ -116,4 +131,28 @@ public class TestArray extends TestCase {
     public void test_default_empty_collection() throws IOException {
         assertEquals("[]", JsonStream.serialize(Collections.emptySet()));
     }
+
+    public void test_primitive_lists() throws IOException {
+        IntList ints = new IntList();
+        ints.add(1);
+        ints.add(-2);
+        assertEquals("[1,-2]", JsonStream.serialize(ints));
+        LongList longs = new LongList(1);
+        longs.add(10000000000L);
+        assertEquals("[10000000000]", JsonStream.serialize(longs));
+        assertEquals("[]", JsonStream.serialize(new DoubleList()));
+        TestObject2 obj = new TestObject2();
+        obj.doubles = new DoubleList();
+        obj.doubles.add(1.5);
+        assertEquals("{\"doubles\":[1.5]}", JsonStream.serialize(obj));
+    }
+
+    public static class TestObject2 {
+        public DoubleList doubles;
+    }
+
+    public void test_nested_primitive_array() throws IOException {
+        assertEquals("[[1,2],[],[3]]", JsonStream.serialize(new int[][]{{1, 2}, {}, {3}}));
+        assertEquals("[[[1.5,2]],null]", JsonStream.serialize(new double[][][]{{{1.5, 2}}, null}));
+    }
 }
@@ -41,4 +41,22 @@ public class TestCustomizeField extends TestCase {
         stream.close();
         assertEquals("{'field1':100}".replace('\'', '"'), baos.toString());
     }
+
+    public static class TestObject2 {
+        public int field1;
+    }
+
+    public void test_customize_primitive_field_encoder() throws IOException {
+        JsoniterSpi.registerPropertyEncoder(TestObject2.class, "field1", new Encoder.IntEncoder() {
+            @Override
+            public void encodeInt(int obj, JsonStream stream) throws IOException {
+                stream.writeVal(String.valueOf(obj));
+            }
+        });
+        TestObject2 obj = new TestObject2();
+        obj.field1 = 100;
+        stream.writeVal(obj);
+        stream.close();
+        assertEquals("{'field1':'100'}".replace('\'', '"'), baos.toString());
+    }
 }
@@ -36,4 +36,21 @@ public class TestCustomizeType extends TestCase {
         stream.close();
         assertEquals("1481365190000", baos.toString());
     }
+
+    public static class MyDate2 {
+        public long time;
+    }
+
+    public void test_register_after_first_use() throws IOException {
+        MyDate2 myDate = new MyDate2();
+        myDate.time = 1481365190000L;
+        assertEquals("{\"time\":1481365190000}", JsonStream.serialize(myDate));
+        JsoniterSpi.registerTypeEncoder(MyDate2.class, new EmptyEncoder() {
+            @Override
+            public void encode(Object obj, JsonStream stream) throws IOException {
+                stream.writeVal(((MyDate2) obj).time);
+            }
+        });
+        assertEquals("1481365190000", JsonStream.serialize(myDate));
+    }
 }
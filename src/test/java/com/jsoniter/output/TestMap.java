@@ -1,12 +1,12 @@
 package com.jsoniter.output;
 
+import com.jsoniter.JsonIterator;
 import com.jsoniter.spi.TypeLiteral;
 import junit.framework.TestCase;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 public class TestMap extends TestCase {
 
@@ -50,4 +50,47 @@ public class TestMap extends TestCase {
         stream.close();
         assertEquals("{\"hello\":null}", baos.toString());
     }
+
+    public enum Color {
+        RED, GREEN
+    }
+
+    public void test_non_string_map_keys() throws IOException {
+        TreeMap<Long, Integer> longKeys = new TreeMap<Long, Integer>();
+        longKeys.put(-1L, 1);
+        longKeys.put(10000000000L, 2);
+        assertEquals("{\"-1\":1,\"10000000000\":2}", serialize(new TypeLiteral<Map<Long, Integer>>() {
+        }, longKeys));
+        EnumMap<Color, String> enumKeys = new EnumMap<Color, String>(Color.class);
+        enumKeys.put(Color.RED, "r");
+        enumKeys.put(Color.GREEN, "g");
+        assertEquals("{\"RED\":\"r\",\"GREEN\":\"g\"}", serialize(new TypeLiteral<Map<Color, String>>() {
+        }, enumKeys));
+        Map<UUID, Integer> uuidKeys = new HashMap<UUID, Integer>();
+        uuidKeys.put(UUID.fromString("123e4567-e89b-12d3-a456-426655440000"), 1);
+        assertEquals("{\"123e4567-e89b-12d3-a456-426655440000\":1}", serialize(new TypeLiteral<Map<UUID, Integer>>() {
+        }, uuidKeys));
+    }
+
+    public void test_fractional_map_keys() throws IOException {
+        TypeLiteral<Map<Double, Integer>> doubleKeysType = new TypeLiteral<Map<Double, Integer>>() {
+        };
+        Map<Double, Integer> doubleKeys = new HashMap<Double, Integer>();
+        doubleKeys.put(0.1234567891, 1);
+        doubleKeys.put(-2.5E-9, 2);
+        assertEquals(doubleKeys, JsonIterator.deserialize(serialize(doubleKeysType, doubleKeys), doubleKeysType));
+        TypeLiteral<Map<Float, Integer>> floatKeysType = new TypeLiteral<Map<Float, Integer>>() {
+        };
+        Map<Float, Integer> floatKeys = new HashMap<Float, Integer>();
+        floatKeys.put(0.1234567f, 1);
+        assertEquals(floatKeys, JsonIterator.deserialize(serialize(floatKeysType, floatKeys), floatKeysType));
+    }
+
+    private String serialize(TypeLiteral typeLiteral, Object obj) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        JsonStream stream = new JsonStream(baos, 4096);
+        stream.writeVal(typeLiteral, obj);
+        stream.close();
+        return baos.toString();
+    }
 }
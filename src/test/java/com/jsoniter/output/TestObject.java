@@ -1,8 +1,10 @@
 package com.jsoniter.output;
 
+import com.jsoniter.JsonIterator;
 import com.jsoniter.annotation.JsonIgnore;
 import com.jsoniter.annotation.JsonProperty;
 import com.jsoniter.annotation.JsoniterAnnotationSupport;
+import com.jsoniter.spi.JsoniterSpi;
 import com.jsoniter.spi.TypeLiteral;
 import junit.framework.TestCase;
 
@@ -235,4 +237,49 @@ public class TestObject extends TestCase {
         obj.field3 = "hello";
         assertEquals("{\"field3\":\"hello\"}", JsonStream.serialize(obj));
     }
+
+    public static class TestObject12 {
+        public int field1;
+        public String field2;
+    }
+
+    public void test_tiered_mode() throws Exception {
+        EncodingMode mode = Codegen.mode;
+        JsonStream.setMode(EncodingMode.TIERED_MODE);
+        // never promoted in background, the test promotes by itself
+        JsonStream.setTieredThreshold(Integer.MAX_VALUE);
+        try {
+            String cacheKey = TypeLiteral.create(TestObject12.class).getEncoderCacheKey();
+            TestObject12 obj = new TestObject12();
+            obj.field1 = 1;
+            obj.field2 = "a";
+            for (int i = 0; i < 3; i++) {
+                assertEquals("{\"field1\":1,\"field2\":\"a\"}", JsonStream.serialize(obj));
+            }
+            Codegen.promote((Codegen.TieredEncoder) JsoniterSpi.getEncoder(cacheKey));
+            assertFalse(JsoniterSpi.getEncoder(cacheKey) instanceof Codegen.TieredEncoder);
+            assertEquals("{\"field1\":1,\"field2\":\"a\"}", JsonStream.serialize(obj));
+        } finally {
+            JsonStream.setTieredThreshold(1000);
+            JsonStream.setMode(mode);
+        }
+    }
+
+    public static class TestObject13 {
+        public String f0, f1, f2, f3, f4, f5, f6, f7, f8, f9;
+        public String f10, f11, f12, f13, f14, f15, f16, f17, f18, f19;
+        public String f20, f21, f22, f23, f24, f25, f26, f27, f28, f29;
+        public String f30, f31, f32, f33, f34, f35, f36, f37, f38, f39;
+    }
+
+    public void test_wide_object() {
+        TestObject13 obj = new TestObject13();
+        assertEquals("{}", JsonStream.serialize(obj));
+        obj.f5 = "a";
+        obj.f37 = "b";
+        Map<String, Object> map = JsonIterator.deserialize(JsonStream.serialize(obj), Map.class);
+        assertEquals(2, map.size());
+        assertEquals("a", map.get("f5"));
+        assertEquals("b", map.get("f37"));
+    }
 }